@@ -18,7 +18,7 @@ interface Prevision {
   temperatureMin: number;
   pluiePrevue: number;
   vent: number;
-  station?: any;
+  stationId: number;
 }
 
 @Component({
@@ -86,7 +86,7 @@ export class ForecastListComponent implements OnInit {
 
   filterForecasts(): void {
     if (this.selectedStationId) {
-      this.forecasts = this.allForecasts.filter(f => f.station?.id === this.selectedStationId);
+      this.forecasts = this.allForecasts.filter(f => f.stationId === this.selectedStationId);
     } else {
       this.forecasts = this.allForecasts;
     }
@@ -98,6 +98,7 @@ export class ForecastListComponent implements OnInit {
   }
 
   getStationName(forecast: Prevision): string {
-    return forecast.station?.nom || 'Station ' + (forecast.station?.id || '-');
+    const station = this.stations.find(s => s.id === forecast.stationId);
+    return station?.nom || 'Station ' + (forecast.stationId || '-');
   }
 }
@@ -0,0 +1,221 @@
+package com.example.gatewayservice.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bounded in-memory store of backend responses, shared by the routes using the
+ * {@code ResponseCache} filter. Entries expire after the TTL of their route and the least
+ * recently used entries are evicted once {@code gateway.cache.max-entries} is reached.
+ * Entries of {@code no-cache} responses must be revalidated with the backend before each use.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    private final int maxEntries;
+    private final int maxBodySize;
+
+    // Access-ordered, guarded by this
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final MeterRegistry meterRegistry;
+    private final Counter evictions;
+
+    public ResponseCache(MeterRegistry meterRegistry,
+                         @Value("${gateway.cache.max-entries:1000}") int maxEntries,
+                         @Value("${gateway.cache.max-body-size:1048576}") int maxBodySize) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBodySize = maxBodySize;
+        this.meterRegistry = meterRegistry;
+        this.evictions = Counter.builder("gateway.response.cache.evictions")
+            .description("Cached responses evicted to keep the cache within its bound")
+            .register(meterRegistry);
+        meterRegistry.gauge("gateway.response.cache.size", this, ResponseCache::size);
+    }
+
+    /**
+     * Hits are counted here; the lookups of entries to revalidate are counted by
+     * {@link #recordRevalidation(String, boolean)} once the backend has answered.
+     *
+     * @return the live entry of the key, or null on a miss
+     */
+    public CachedResponse get(String routeId, String key) {
+        CachedResponse cached;
+        synchronized (this) {
+            cached = entries.get(key);
+            if (cached != null && cached.expiresAt() <= System.currentTimeMillis()) {
+                entries.remove(key);
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            lookups(routeId, "miss").increment();
+        } else if (!cached.revalidate()) {
+            lookups(routeId, "hit").increment();
+            // Each hit saves the backend call that produced the entry
+            savedLatency(routeId).record(cached.backendNanos(), TimeUnit.NANOSECONDS);
+        }
+        return cached;
+    }
+
+    public void put(String key, String routeId, int status, HttpHeaders headers, byte[] body,
+                    Duration ttl, long backendNanos, boolean revalidate) {
+        CachedResponse cached = new CachedResponse(routeId, status, HttpHeaders.readOnlyHttpHeaders(headers), body,
+            System.currentTimeMillis() + ttl.toMillis(), backendNanos, revalidate);
+        synchronized (this) {
+            entries.put(key, cached);
+            Iterator<CachedResponse> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Counts the lookup of an entry that was revalidated: {@code revalidated} when the backend
+     * answered 304 and the cached body was served, {@code miss} when it sent a new response.
+     */
+    public void recordRevalidation(String routeId, boolean notModified) {
+        lookups(routeId, notModified ? "revalidated" : "miss").increment();
+    }
+
+    public void recordBackendLatency(String routeId, long nanos) {
+        Timer.builder("gateway.response.cache.backend")
+            .description("Backend latency of the responses not served by the cache")
+            .tag("route", routeId)
+            .register(meterRegistry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Drop the entries of a route, or of every route when {@code routeId} is null.
+     *
+     * @return the number of entries removed
+     */
+    public synchronized int invalidateRoute(String routeId) {
+        int before = entries.size();
+        entries.values().removeIf(cached -> routeId == null || routeId.equals(cached.routeId()));
+        int removed = before - entries.size();
+        log.debug("{} cached responses invalidated for route {}", removed, routeId != null ? routeId : "*");
+        return removed;
+    }
+
+    /**
+     * Drop the entries whose key starts with the given path.
+     *
+     * @return the number of entries removed
+     */
+    public synchronized int invalidatePath(String pathPrefix) {
+        int before = entries.size();
+        entries.keySet().removeIf(key -> key.startsWith(pathPrefix));
+        int removed = before - entries.size();
+        log.debug("{} cached responses invalidated under {}", removed, pathPrefix);
+        return removed;
+    }
+
+    /**
+     * Routes may point elsewhere after a refresh, drop everything cached so far.
+     */
+    @EventListener(RefreshRoutesEvent.class)
+    public void onRefreshRoutes() {
+        invalidateRoute(null);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Hits, misses, revalidations, hit ratio and backend time saved, overall and per route.
+     * Revalidated responses still cost a backend call and count in neither the hits nor the misses.
+     */
+    public Map<String, Object> statistics() {
+        Map<String, Object> routes = new LinkedHashMap<>();
+        double hits = 0;
+        double misses = 0;
+        double revalidated = 0;
+        double savedMillis = 0;
+        for (Counter counter : meterRegistry.find("gateway.response.cache.lookups").counters()) {
+            String route = counter.getId().getTag("route");
+            String result = counter.getId().getTag("result");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> stats = (Map<String, Object>) routes.computeIfAbsent(route, r -> new LinkedHashMap<>());
+            stats.put(switch (result) {
+                case "hit" -> "hits";
+                case "miss" -> "misses";
+                default -> result;
+            }, (long) counter.count());
+            if ("hit".equals(result)) {
+                hits += counter.count();
+            } else if ("revalidated".equals(result)) {
+                revalidated += counter.count();
+            } else {
+                misses += counter.count();
+            }
+        }
+        for (Timer timer : meterRegistry.find("gateway.response.cache.saved").timers()) {
+            double routeSaved = timer.totalTime(TimeUnit.MILLISECONDS);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> stats = (Map<String, Object>) routes.computeIfAbsent(timer.getId().getTag("route"),
+                r -> new LinkedHashMap<>());
+            stats.put("savedBackendMillis", Math.round(routeSaved));
+            savedMillis += routeSaved;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", size());
+        result.put("maxEntries", maxEntries);
+        result.put("hits", (long) hits);
+        result.put("misses", (long) misses);
+        result.put("revalidated", (long) revalidated);
+        result.put("hitRatio", hits + misses == 0 ? 0d : hits / (hits + misses));
+        result.put("savedBackendMillis", Math.round(savedMillis));
+        result.put("routes", routes);
+        return result;
+    }
+
+    private Counter lookups(String routeId, String result) {
+        return Counter.builder("gateway.response.cache.lookups")
+            .description("Cacheable requests, served from the cache or not")
+            .tag("route", routeId)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private Timer savedLatency(String routeId) {
+        return Timer.builder("gateway.response.cache.saved")
+            .description("Backend latency avoided by responses served from the cache")
+            .tag("route", routeId)
+            .register(meterRegistry);
+    }
+
+    /**
+     * {@code revalidate}: the response was marked {@code no-cache} and may only be served after
+     * the backend confirmed its ETag.
+     */
+    public record CachedResponse(String routeId, int status, HttpHeaders headers, byte[] body,
+                                 long expiresAt, long backendNanos, boolean revalidate) { }
+}
@@ -0,0 +1,36 @@
+package com.example.gatewayservice.cache;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/responsecache}: GET returns the cache statistics (hit ratio, backend time saved),
+ * DELETE invalidates the entries of a route ({@code ?route=ms-meteo}), under a path
+ * ({@code ?path=/api/meteo/previsions}) or all of them.
+ */
+@Component
+@Endpoint(id = "responsecache")
+public class ResponseCacheEndpoint {
+
+    private final ResponseCache cache;
+
+    public ResponseCacheEndpoint(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        return cache.statistics();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> invalidate(@Nullable String route, @Nullable String path) {
+        int removed = path != null ? cache.invalidatePath(path) : cache.invalidateRoute(route);
+        return Map.of("invalidated", removed);
+    }
+}
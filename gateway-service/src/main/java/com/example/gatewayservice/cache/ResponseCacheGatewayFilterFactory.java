@@ -0,0 +1,260 @@
+package com.example.gatewayservice.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.gatewayservice.cache.ResponseCache.CachedResponse;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Route filter caching successful GET responses in the {@link ResponseCache}.
+ * Responses are keyed on path, query and caller (authenticated principal, or a digest of the
+ * {@code Authorization} header), and kept for the {@code ttl} of the route:
+ * <pre>
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       ttl: 30s
+ * </pre>
+ * Any other request that succeeds on the route invalidates its cached responses.
+ * Responses marked {@code no-cache} are kept but revalidated on each use: the request is forwarded
+ * with the cached ETag in {@code If-None-Match} and the cached body is replayed when the backend
+ * answers {@code 304 Not Modified}. Streamed responses (written with flushes), responses larger than
+ * {@code gateway.cache.max-body-size}, responses marked {@code no-store} or {@code private} and
+ * {@code no-cache} responses without ETag are passed through without being cached.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    static final String CACHE_HEADER = "X-Cache";
+
+    // Not replayed from the cache, they describe the original connection
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(HttpHeaders.CONNECTION,
+        HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH, "Keep-Alive");
+
+    private final ResponseCache cache;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Must wrap the response before NettyWriteResponseFilter writes the backend body into it
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "unknown";
+            ServerHttpRequest request = exchange.getRequest();
+
+            HttpMethod method = request.getMethod();
+            if (method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+                return chain.filter(exchange);
+            }
+            if (method != HttpMethod.GET) {
+                return chain.filter(exchange).then(Mono.fromRunnable(() -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        cache.invalidateRoute(routeId);
+                    }
+                }));
+            }
+
+            return callerOf(exchange).flatMap(caller -> {
+                String key = request.getPath().value() + "?" + (request.getURI().getRawQuery() != null
+                    ? request.getURI().getRawQuery() : "") + "#" + caller;
+                CachedResponse cached = cache.get(routeId, key);
+                List<String> clientETags = request.getHeaders().getIfNoneMatch();
+                if (cached != null && !cached.revalidate()) {
+                    return writeCached(exchange.getResponse(), clientETags, cached, "HIT");
+                }
+                ServerWebExchange forwarded = exchange;
+                if (cached != null) {
+                    String etag = cached.headers().getETag();
+                    forwarded = exchange.mutate()
+                        .request(builder -> builder.headers(headers -> headers.setIfNoneMatch(etag)))
+                        .build();
+                }
+                long start = System.nanoTime();
+                ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), key, routeId,
+                    config.getTtl(), start, cached, clientETags);
+                return chain.filter(forwarded.mutate().response(capturing).build());
+            });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> writeCached(ServerHttpResponse response, List<String> clientETags, CachedResponse cached,
+                                   String cacheStatus) {
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(CACHE_HEADER, cacheStatus);
+
+        String etag = cached.headers().getETag();
+        if (etag != null && clientETags.contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private Mono<String> callerOf(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+            .map(Principal::getName)
+            .switchIfEmpty(Mono.fromSupplier(() -> {
+                String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+                return authorization != null ? "auth:" + digest(authorization) : "anonymous";
+            }));
+    }
+
+    private static String digest(String value) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isCacheable(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return true;
+        }
+        if (cacheControl.contains(CacheControl.noStore().getHeaderValue()) || cacheControl.contains("private")) {
+            return false;
+        }
+        // Without an ETag a no-cache response cannot be revalidated
+        return !requiresRevalidation(headers) || headers.getETag() != null;
+    }
+
+    private static boolean requiresRevalidation(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && cacheControl.contains(CacheControl.noCache().getHeaderValue());
+    }
+
+    /**
+     * Passes the backend body through unchanged while copying it, and caches the copy
+     * once the body has been fully written. When revalidating an entry, a {@code 304} from the
+     * backend is replaced by the cached response.
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final String routeId;
+        private final Duration ttl;
+        private final long start;
+        private final CachedResponse revalidated;
+        private final List<String> clientETags;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, String routeId, Duration ttl, long start,
+                          CachedResponse revalidated, List<String> clientETags) {
+            super(delegate);
+            this.key = key;
+            this.routeId = routeId;
+            this.ttl = ttl;
+            this.start = start;
+            this.revalidated = revalidated;
+            this.clientETags = clientETags;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (revalidated != null) {
+                boolean notModified = getStatusCode() != null && getStatusCode().value() == HttpStatus.NOT_MODIFIED.value();
+                cache.recordRevalidation(routeId, notModified);
+                if (notModified) {
+                    cache.put(key, routeId, revalidated.status(), revalidated.headers(), revalidated.body(), ttl,
+                        revalidated.backendNanos(), true);
+                    return Flux.<DataBuffer>from(body)
+                        .doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(() -> writeCached(getDelegate(), clientETags, revalidated, "REVALIDATED")));
+                }
+            }
+            getHeaders().set(CACHE_HEADER, "MISS");
+            if (!isCacheable(getStatusCode(), getHeaders())) {
+                return super.writeWith(body);
+            }
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] overflow = new boolean[1];
+            Flux<DataBuffer> teed = Flux.<DataBuffer>from(body)
+                .doOnNext(buffer -> {
+                    int readable = buffer.readableByteCount();
+                    if (overflow[0] || copy.size() + readable > cache.getMaxBodySize()) {
+                        overflow[0] = true;
+                        return;
+                    }
+                    int position = buffer.readPosition();
+                    byte[] chunk = new byte[readable];
+                    buffer.read(chunk);
+                    buffer.readPosition(position);
+                    copy.writeBytes(chunk);
+                })
+                .doOnComplete(() -> {
+                    long elapsed = System.nanoTime() - start;
+                    cache.recordBackendLatency(routeId, elapsed);
+                    if (!overflow[0]) {
+                        HttpHeaders headers = new HttpHeaders();
+                        getHeaders().forEach((name, values) -> {
+                            if (HOP_BY_HOP_HEADERS.stream().noneMatch(name::equalsIgnoreCase)
+                                    && !CACHE_HEADER.equalsIgnoreCase(name)) {
+                                headers.put(name, values);
+                            }
+                        });
+                        cache.put(key, routeId, getStatusCode().value(), headers, copy.toByteArray(), ttl, elapsed,
+                            requiresRevalidation(headers));
+                    }
+                });
+            return super.writeWith(teed);
+        }
+    }
+
+    public static class Config {
+
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.msarrosage.actuation;
+
+/**
+ * Irrigation to perform for one programme.
+ */
+public record ActuationCommand(
+        Long programmeId,
+        Long parcelleId,
+        double volumePrevu,
+        Integer duree) {
+}
@@ -0,0 +1,331 @@
+package com.example.msarrosage.actuation;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.msarrosage.cluster.ClusterMembership;
+import com.example.msarrosage.entities.JournalArrosage;
+import com.example.msarrosage.entities.ProgrammeArrosage;
+import com.example.msarrosage.entities.ProgrammeStatut;
+import com.example.msarrosage.repositories.JournalArrosageRepository;
+import com.example.msarrosage.repositories.ProgrammeArrosageRepository;
+import com.example.msarrosage.services.WaterBalanceStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs irrigation executions on a bounded pool of actuation workers.
+ *
+ * A programme is first reserved with {@link #tryReserve(Long)}, which enforces both the total number
+ * of in-flight executions (workers + queue capacity) and the per-parcel concurrency limit, then
+ * dispatched once the caller has marked it EN_COURS. Each actuation gets its own timeout, after which
+ * its worker is interrupted and the execution recorded as failed; its permits are only released once the
+ * worker has actually returned, so a stuck valve is never driven by two executions at once. Results are written by a separate pool, each in its own short transaction
+ * (journal entry, water balance and programme status), so a slow valve or a failing programme never
+ * holds up the others. An execution may wait in the queue longer than its lease, so the lease is checked
+ * and renewed right before the actuator is called: a programme whose lease expired meanwhile (and may have
+ * been planned again elsewhere) is not actuated. A result is only recorded while this instance still holds
+ * the programme's lease.
+ */
+@Component
+public class ActuationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ActuationDispatcher.class);
+
+    private final IrrigationActuator actuator;
+    private final ProgrammeArrosageRepository programmeRepo;
+    private final JournalArrosageRepository journalRepo;
+    private final WaterBalanceStore waterBalanceStore;
+    private final ClusterMembership clusterMembership;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolExecutor workers;
+    private final ThreadPoolExecutor resultWriters;
+    private final ScheduledExecutorService timeouts;
+    private final long timeoutMillis;
+    private final long leaseMillis;
+    private final int perParcelLimit;
+    private final Semaphore capacity;
+    private final Map<Long, Semaphore> parcelPermits = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Timer actuationTimer;
+    private final MeterRegistry meterRegistry;
+
+    public ActuationDispatcher(IrrigationActuator actuator,
+                               ProgrammeArrosageRepository programmeRepo,
+                               JournalArrosageRepository journalRepo,
+                               WaterBalanceStore waterBalanceStore,
+                               ClusterMembership clusterMembership,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.scheduling.irrigation.actuation.workers:8}") int workerCount,
+                               @Value("${app.scheduling.irrigation.actuation.queue-capacity:500}") int queueCapacity,
+                               @Value("${app.scheduling.irrigation.actuation.per-parcel-limit:1}") int perParcelLimit,
+                               @Value("${app.scheduling.irrigation.actuation.timeout:60000}") long timeoutMillis,
+                               @Value("${app.scheduling.irrigation.actuation.result-writers:2}") int resultWriterCount,
+                               @Value("${app.scheduling.irrigation.lease-duration:600000}") long leaseMillis) {
+        this.actuator = actuator;
+        this.programmeRepo = programmeRepo;
+        this.journalRepo = journalRepo;
+        this.waterBalanceStore = waterBalanceStore;
+        this.clusterMembership = clusterMembership;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+
+        int workerThreads = Math.max(1, workerCount);
+        int queueSize = Math.max(0, queueCapacity);
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), threadFactory("actuation-worker-"));
+        this.resultWriters = new ThreadPoolExecutor(Math.max(1, resultWriterCount), Math.max(1, resultWriterCount),
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory("actuation-result-"));
+        this.timeouts = Executors.newSingleThreadScheduledExecutor(threadFactory("actuation-timeout-"));
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+        this.leaseMillis = Math.max(1, leaseMillis);
+        if (this.timeoutMillis >= this.leaseMillis) {
+            log.warn("Actuation timeout ({} ms) not shorter than the lease duration ({} ms): results of slow "
+                + "actuations will be discarded", this.timeoutMillis, this.leaseMillis);
+        }
+        this.perParcelLimit = Math.max(1, perParcelLimit);
+        this.capacity = new Semaphore(workerThreads + queueSize);
+
+        this.actuationTimer = Timer.builder("arrosage.actuation.duration")
+            .description("Duration of irrigation actuations")
+            .register(meterRegistry);
+        meterRegistry.gauge("arrosage.actuation.inflight", inFlight);
+        meterRegistry.gauge("arrosage.actuation.queued", workers, executor -> executor.getQueue().size());
+    }
+
+    /**
+     * Reserves an execution slot for a programme of the given parcel.
+     * @return false if the dispatcher is saturated or the parcel already runs its maximum of executions
+     */
+    public boolean tryReserve(Long parcelleId) {
+        if (!capacity.tryAcquire()) {
+            return false;
+        }
+        if (!parcelPermits(parcelleId).tryAcquire()) {
+            capacity.release();
+            return false;
+        }
+        inFlight.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Cancels a reservation that will not be dispatched.
+     */
+    public void release(Long parcelleId) {
+        inFlight.decrementAndGet();
+        parcelPermits(parcelleId).release();
+        capacity.release();
+    }
+
+    /**
+     * Starts the execution of a reserved programme. The reservation is released once its result is
+     * recorded and its worker has returned from the actuator: an actuation that timed out is recorded
+     * as failed right away, but keeps its parcel and capacity permits while the valve may still be driven.
+     */
+    public CompletableFuture<Void> dispatch(ActuationCommand command, LocalDateTime executionTime) {
+        CompletableFuture<ActuationResult> actuation = new CompletableFuture<>();
+        CompletableFuture<Void> workerDone = new CompletableFuture<>();
+        try {
+            workers.execute(() -> {
+                try {
+                    actuate(command, actuation);
+                } finally {
+                    workerDone.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            actuation.completeExceptionally(e);
+            workerDone.complete(null);
+        }
+        CompletableFuture<Void> recorded = actuation.handleAsync((result, error) -> {
+            recordResult(command, executionTime, result, error);
+            return null;
+        }, resultWriters);
+        return CompletableFuture.allOf(recorded, workerDone)
+            .whenComplete((ignored, error) -> release(command.parcelleId()));
+    }
+
+    /**
+     * @return the number of reserved executions not yet recorded or whose worker is still running
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void actuate(ActuationCommand command, CompletableFuture<ActuationResult> actuation) {
+        try {
+            if (!renewLease(command)) {
+                actuation.completeExceptionally(new CancellationException(
+                    "Lease of programme " + command.programmeId() + " expired before its actuation"));
+                return;
+            }
+        } catch (Exception e) {
+            actuation.completeExceptionally(e);
+            return;
+        }
+
+        Thread worker = Thread.currentThread();
+        ScheduledFuture<?> timer = timeouts.schedule(() -> {
+            if (actuation.completeExceptionally(new TimeoutException("Actuation timed out after " + timeoutMillis + " ms"))) {
+                worker.interrupt();
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try {
+            log.info("Executing irrigation for programme ID {} (Parcelle {}, planned volume {} L)",
+                command.programmeId(), command.parcelleId(), command.volumePrevu());
+            actuation.complete(actuator.actuate(command));
+        } catch (Throwable e) {
+            actuation.completeExceptionally(e);
+        } finally {
+            timer.cancel(false);
+            actuationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Extends the lease so that it covers the actuation and the recording of its result.
+     * @return false if this instance no longer holds the lease
+     */
+    private boolean renewLease(ActuationCommand command) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer renewed = transactionTemplate.execute(status -> programmeRepo.renewLease(command.programmeId(),
+            clusterMembership.getInstanceId(), now, now.plusNanos(leaseMillis * 1_000_000L)));
+        return renewed != null && renewed > 0;
+    }
+
+    /**
+     * Writes the journal entry, the water balance and the programme status of one execution.
+     */
+    private void recordResult(ActuationCommand command, LocalDateTime executionTime,
+                              ActuationResult result, Throwable error) {
+        String outcome;
+        double actualVolume;
+        String remark;
+        String newStatus;
+        if (error instanceof CancellationException) {
+            countResult("lease-lost");
+            log.warn("Programme {} not actuated: {}", command.programmeId(), error.getMessage());
+            return;
+        }
+        if (error instanceof TimeoutException) {
+            outcome = "timeout";
+            actualVolume = 0.0;
+            remark = "Execution failed - " + error.getMessage();
+            newStatus = ProgrammeStatut.FAILED;
+            log.warn("Programme {} execution timed out", command.programmeId());
+        } else if (error != null || result == null) {
+            outcome = "error";
+            actualVolume = 0.0;
+            remark = "Execution failed - System exception: " + (error != null ? error.getMessage() : "no result");
+            newStatus = ProgrammeStatut.FAILED;
+            log.error("Critical error executing irrigation for programme {}: ", command.programmeId(), error);
+        } else if (result.success()) {
+            outcome = "success";
+            actualVolume = result.volumeReel();
+            remark = result.remarque();
+            newStatus = ProgrammeStatut.EXECUTED;
+            log.info("Programme {} executed successfully with {} L", command.programmeId(), actualVolume);
+        } else {
+            outcome = "failure";
+            actualVolume = 0.0;
+            remark = result.remarque();
+            newStatus = ProgrammeStatut.FAILED;
+            log.warn("Programme {} execution failed", command.programmeId());
+        }
+        countResult(outcome);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                ProgrammeArrosage programme = programmeRepo.findById(command.programmeId()).orElse(null);
+                if (programme == null) {
+                    log.warn("Programme {} deleted during its execution, result not recorded", command.programmeId());
+                    return;
+                }
+                if (!ProgrammeStatut.canTransition(programme.getStatut(), newStatus)
+                        || !clusterMembership.getInstanceId().equals(programme.getLeaseOwner())) {
+                    log.warn("Lease of programme {} lost during its execution, result not recorded", command.programmeId());
+                    return;
+                }
+                JournalArrosage journal = JournalArrosage.builder()
+                    .programme(programme)
+                    .dateExecution(executionTime)
+                    .volumeReel(actualVolume)
+                    .remarque(remark)
+                    .build();
+                journalRepo.save(journal);
+                waterBalanceStore.recordExecution(programme.getParcelleId(), executionTime, actualVolume);
+
+                programme.setStatut(newStatus);
+                programme.setLeaseOwner(null);
+                programme.setLeaseExpiry(null);
+                programmeRepo.save(programme);
+                log.info("Created execution log ID {} for programme {} with status {}",
+                    journal.getId(), programme.getId(), newStatus);
+            });
+        } catch (Exception e) {
+            log.error("Failed to record execution result of programme {}: ", command.programmeId(), e);
+        }
+    }
+
+    private void countResult(String outcome) {
+        Counter.builder("arrosage.actuation.results")
+            .description("Irrigation executions by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private Semaphore parcelPermits(Long parcelleId) {
+        return parcelPermits.computeIfAbsent(parcelleId, id -> new Semaphore(perParcelLimit));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        resultWriters.shutdown();
+        resultWriters.awaitTermination(30, TimeUnit.SECONDS);
+        timeouts.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.msarrosage.actuation;
+
+/**
+ * Outcome reported by an {@link IrrigationActuator}.
+ */
+public record ActuationResult(
+        boolean success,
+        double volumeReel,
+        String remarque) {
+
+    public static ActuationResult succeeded(double volumeReel, String remarque) {
+        return new ActuationResult(true, volumeReel, remarque);
+    }
+
+    public static ActuationResult failed(String remarque) {
+        return new ActuationResult(false, 0.0, remarque);
+    }
+}
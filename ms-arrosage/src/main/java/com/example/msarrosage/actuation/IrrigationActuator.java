@@ -0,0 +1,14 @@
+package com.example.msarrosage.actuation;
+
+/**
+ * SPI of the irrigation hardware. Implementations open the valves of a parcel, deliver the
+ * requested volume and report what was actually delivered.
+ *
+ * Calls run on the dispatcher's worker threads and may block. When an execution exceeds the
+ * configured timeout its worker is interrupted, so implementations should stop waiting on the
+ * hardware when interrupted. Any exception is recorded as a failed execution.
+ */
+public interface IrrigationActuator {
+
+    ActuationResult actuate(ActuationCommand command) throws Exception;
+}
@@ -0,0 +1,30 @@
+package com.example.msarrosage.actuation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Actuator used when no hardware integration is configured: 90% of executions succeed and
+ * deliver the planned volume ±5%, after an optional artificial latency.
+ */
+public class SimulatedIrrigationActuator implements IrrigationActuator {
+
+    private final long latencyMillis;
+
+    public SimulatedIrrigationActuator(long latencyMillis) {
+        this.latencyMillis = Math.max(0, latencyMillis);
+    }
+
+    @Override
+    public ActuationResult actuate(ActuationCommand command) throws InterruptedException {
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() <= 0.1) {
+            return ActuationResult.failed("Execution failed - Hardware malfunction or system error");
+        }
+        double variation = 0.95 + random.nextDouble() * 0.1; // 0.95 to 1.05
+        return ActuationResult.succeeded(command.volumePrevu() * variation,
+            "Executed successfully - Irrigation completed as planned");
+    }
+}
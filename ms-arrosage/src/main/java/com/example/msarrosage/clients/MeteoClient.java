@@ -3,14 +3,23 @@ package com.example.msarrosage.clients;
 import java.util.List;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 import com.example.msarrosage.dto.PrevisionResponse;
 
 @FeignClient(name = "${meteo.service-id:ms-meteo}", path = "/api/meteo")
 public interface MeteoClient {
 
+    /**
+     * ms-meteo answers 304 Not Modified, surfaced as a {@code FeignException} with that status,
+     * when {@code ifNoneMatch} is still the ETag of the station forecasts.
+     */
     @GetMapping("/previsions/{stationId}")
-    List<PrevisionResponse> getPrevisions(@PathVariable("stationId") Long stationId);
+    ResponseEntity<List<PrevisionResponse>> getPrevisions(
+            @PathVariable("stationId") Long stationId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
 }
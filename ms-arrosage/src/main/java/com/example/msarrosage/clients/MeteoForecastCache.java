@@ -0,0 +1,176 @@
+package com.example.msarrosage.clients;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.example.msarrosage.dto.PrevisionResponse;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read-through cache of station forecasts in front of {@link MeteoClient}.
+ * Entries expire after {@code app.weather.cache.ttl} (aligned with the ms-meteo refresh cycle),
+ * the number of stations kept is bounded, and weather events refresh the matching station
+ * or invalidate it when they carry no usable forecast.
+ * Expired entries are revalidated with their ETag, so that unchanged forecasts are not
+ * transferred again. Concurrent lookups of a station that is not cached share a single request.
+ */
+@Component
+public class MeteoForecastCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MeteoForecastCache.class);
+
+    private final MeteoClient meteoClient;
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Request in flight per station, removed once it completes
+    private final Map<Long, CompletableFuture<List<PrevisionResponse>>> fetches = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter revalidated;
+    private final Counter coalesced;
+
+    public MeteoForecastCache(MeteoClient meteoClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.weather.cache.ttl:21600000}") long ttlMillis,
+                              @Value("${app.weather.cache.max-size:1000}") int maxSize) {
+        this.meteoClient = meteoClient;
+        this.ttlMillis = ttlMillis;
+        this.maxSize = Math.max(1, maxSize);
+        this.hits = Counter.builder("arrosage.forecast.cache")
+            .description("Forecast lookups served by the local cache")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("arrosage.forecast.cache")
+            .description("Forecast lookups served by the local cache")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.revalidated = Counter.builder("arrosage.forecast.cache")
+            .description("Forecast lookups served by the local cache")
+            .tag("result", "not-modified")
+            .register(meterRegistry);
+        this.coalesced = Counter.builder("arrosage.forecast.cache")
+            .description("Forecast lookups served by the local cache")
+            .tag("result", "coalesced")
+            .register(meterRegistry);
+        meterRegistry.gauge("arrosage.forecast.cache.size", entries, Map::size);
+    }
+
+    /**
+     * @return the forecasts of a station, fetched from ms-meteo on a miss or after expiry;
+     *         concurrent fetches of the same station share a single request
+     */
+    public List<PrevisionResponse> getPrevisions(Long stationId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(stationId);
+        if (entry != null && entry.expiresAt() > now) {
+            hits.increment();
+            return entry.previsions();
+        }
+
+        CompletableFuture<List<PrevisionResponse>> own = new CompletableFuture<>();
+        CompletableFuture<List<PrevisionResponse>> running = fetches.putIfAbsent(stationId, own);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            List<PrevisionResponse> previsions = fetch(stationId, entry, now);
+            own.complete(previsions);
+            return previsions;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            fetches.remove(stationId, own);
+        }
+    }
+
+    private List<PrevisionResponse> fetch(Long stationId, Entry entry, long now) {
+        ResponseEntity<List<PrevisionResponse>> response;
+        try {
+            response = meteoClient.getPrevisions(stationId, entry != null ? entry.etag() : null);
+        } catch (FeignException e) {
+            if (entry == null || e.status() != HttpStatus.NOT_MODIFIED.value()) {
+                throw e;
+            }
+            revalidated.increment();
+            entries.replace(stationId, entry, new Entry(entry.previsions(), entry.etag(), now + ttlMillis));
+            return entry.previsions();
+        }
+
+        misses.increment();
+        List<PrevisionResponse> previsions = response.getBody();
+        return previsions != null ? put(stationId, previsions, response.getHeaders().getETag()) : null;
+    }
+
+    /**
+     * Merge forecasts received through weather events into the cached entry of their station,
+     * replacing the forecasts of the same dates. Stations not cached are left untouched.
+     */
+    public void refresh(Long stationId, List<PrevisionResponse> changed) {
+        entries.computeIfPresent(stationId, (id, entry) -> {
+            Map<LocalDate, PrevisionResponse> byDate = new TreeMap<>();
+            for (PrevisionResponse prevision : entry.previsions()) {
+                if (prevision.date() != null) {
+                    byDate.put(prevision.date(), prevision);
+                }
+            }
+            for (PrevisionResponse prevision : changed) {
+                byDate.put(prevision.date(), prevision);
+            }
+            // The ETag no longer matches the merged list, the next revalidation fetches it again
+            return new Entry(List.copyOf(byDate.values()), entry.etag(), System.currentTimeMillis() + ttlMillis);
+        });
+    }
+
+    private List<PrevisionResponse> put(Long stationId, List<PrevisionResponse> previsions, String etag) {
+        List<PrevisionResponse> copy = List.copyOf(previsions);
+        entries.put(stationId, new Entry(copy, etag, System.currentTimeMillis() + ttlMillis));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+        return copy;
+    }
+
+    public void invalidate(Long stationId) {
+        if (entries.remove(stationId) != null) {
+            log.debug("Prévisions en cache invalidées pour la station {}", stationId);
+        }
+    }
+
+    /**
+     * Drop expired entries, then the entries closest to expiry until the cache fits its bound.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        while (entries.size() > maxSize) {
+            entries.entrySet().stream()
+                .min(Map.Entry.comparingByValue((a, b) -> Long.compare(a.expiresAt(), b.expiresAt())))
+                .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private record Entry(List<PrevisionResponse> previsions, String etag, long expiresAt) { }
+}
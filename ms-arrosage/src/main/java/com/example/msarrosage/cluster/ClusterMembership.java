@@ -0,0 +1,126 @@
+package com.example.msarrosage.cluster;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.msarrosage.entities.InstanceArrosage;
+import com.example.msarrosage.entities.ProgrammeArrosage;
+import com.example.msarrosage.repositories.InstanceArrosageRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Tracks the live ms-arrosage instances through heartbeats in {@code instance_arrosage} and
+ * assigns each parcel to exactly one of them, by hash of the parcel id over the sorted live
+ * instance ids. Sweep jobs only process the parcels of their instance, so adding replicas
+ * splits the work instead of repeating it.
+ *
+ * Until the first heartbeat succeeds, or if this instance is missing from the live list, every
+ * parcel is considered owned: the instance then behaves as a single deployment.
+ */
+@Component
+public class ClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+
+    private final InstanceArrosageRepository instanceRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+    private final long instanceTimeoutMillis;
+
+    private volatile Shard shard = new Shard(0, 1);
+
+    public ClusterMembership(InstanceArrosageRepository instanceRepo,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.cluster.instance-id:${HOSTNAME:}}") String instanceId,
+                             @Value("${app.cluster.instance-timeout:30000}") long instanceTimeoutMillis) {
+        this.instanceRepo = instanceRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.instanceId = instanceId == null || instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.instanceTimeoutMillis = instanceTimeoutMillis;
+        meterRegistry.gauge("arrosage.cluster.instances", this, membership -> membership.shard.count());
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        heartbeat();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.heartbeat-interval:10000}",
+               initialDelayString = "${app.cluster.heartbeat-interval:10000}")
+    public void scheduledHeartbeat() {
+        heartbeat();
+    }
+
+    /**
+     * Records this instance as alive and reloads the live instances.
+     */
+    public void heartbeat() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = now.minusNanos(instanceTimeoutMillis * 1_000_000L);
+            List<String> live = transactionTemplate.execute(status -> {
+                instanceRepo.save(InstanceArrosage.builder().instanceId(instanceId).derniereActivite(now).build());
+                instanceRepo.deleteInactive(since.minusNanos(instanceTimeoutMillis * 1_000_000L));
+                return instanceRepo.findLiveInstanceIds(since);
+            });
+            int index = live != null ? live.indexOf(instanceId) : -1;
+            Shard updated = index < 0 ? new Shard(0, 1) : new Shard(index, live.size());
+            if (!updated.equals(shard)) {
+                log.info("Répartition des parcelles: instance {} = part {} sur {}",
+                    instanceId, updated.index() + 1, updated.count());
+            }
+            shard = updated;
+        } catch (Exception e) {
+            log.error("Erreur lors de l'enregistrement de l'instance {}: {}", instanceId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return true if the sweep jobs of this instance are responsible for the parcel
+     */
+    public boolean ownsParcelle(Long parcelleId) {
+        Shard current = shard;
+        if (current.count() <= 1 || parcelleId == null) {
+            return true;
+        }
+        // Spread consecutive parcel ids before taking the modulo
+        long hash = parcelleId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(hash ^ (hash >>> 32), current.count()) == current.index();
+    }
+
+    public List<ProgrammeArrosage> ownedProgrammes(List<ProgrammeArrosage> programmes) {
+        if (shard.count() <= 1) {
+            return programmes;
+        }
+        return programmes.stream().filter(programme -> ownsParcelle(programme.getParcelleId())).toList();
+    }
+
+    @PreDestroy
+    public void leave() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> instanceRepo.deleteById(instanceId));
+        } catch (Exception e) {
+            log.warn("Impossible de retirer l'instance {}: {}", instanceId, e.getMessage());
+        }
+    }
+
+    private record Shard(int index, int count) { }
+}
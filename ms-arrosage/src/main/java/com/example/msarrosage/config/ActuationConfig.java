@@ -0,0 +1,23 @@
+package com.example.msarrosage.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.msarrosage.actuation.IrrigationActuator;
+import com.example.msarrosage.actuation.SimulatedIrrigationActuator;
+
+@Configuration
+public class ActuationConfig {
+
+    /**
+     * Simulated hardware, replaced by any other {@link IrrigationActuator} bean.
+     */
+    @Bean
+    @ConditionalOnMissingBean(IrrigationActuator.class)
+    public IrrigationActuator simulatedIrrigationActuator(
+            @Value("${app.scheduling.irrigation.actuation.simulated-latency:0}") long latencyMillis) {
+        return new SimulatedIrrigationActuator(latencyMillis);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.msarrosage.config;
+
+import lombok.Data;
+
+/**
+ * Weather adjustment rules as configured under {@code app.adjustment}.
+ * Defaults reproduce the historical hard-coded thresholds.
+ *
+ * Each factor is a ladder: {@code thresholds} are ascending upper bounds and
+ * {@code multipliers} has one more entry than {@code thresholds}. A value lower than or equal to
+ * {@code thresholds[i]} (and above the previous bound) gets {@code multipliers[i]}, a value above
+ * the last bound gets the last multiplier. A missing value always gets {@code multipliers[0]}.
+ */
+@Data
+public class AdjustmentRulesProperties {
+
+    private Ladder rain = new Ladder(new double[] {5.0, 15.0, 25.0}, new double[] {1.0, 0.7, 0.4, 0.2}, 15.0);
+    private Ladder wind = new Ladder(new double[] {20.0, 30.0, 40.0}, new double[] {1.0, 1.15, 1.3, 1.4}, 30.0);
+    private Ladder temperature = new Ladder(new double[] {30.0, 35.0, 40.0}, new double[] {1.0, 1.2, 1.35, 1.5}, null);
+
+    /** Adjusted volume bounds, as ratios of the planned volume */
+    private double minVolumeRatio = 0.2;
+    private double maxVolumeRatio = 2.0;
+
+    /** Multipliers closer to 1 than this tolerance leave the programme untouched */
+    private double changeTolerance = 0.01;
+
+    /** Number of days a programme is postponed by */
+    private int postponeDays = 2;
+
+    @Data
+    public static class Ladder {
+
+        private double[] thresholds;
+        private double[] multipliers;
+
+        /** Values strictly above this bound postpone the programme; null never postpones */
+        private Double postponeAbove;
+
+        public Ladder() {
+        }
+
+        public Ladder(double[] thresholds, double[] multipliers, Double postponeAbove) {
+            this.thresholds = thresholds;
+            this.multipliers = multipliers;
+            this.postponeAbove = postponeAbove;
+        }
+    }
+}
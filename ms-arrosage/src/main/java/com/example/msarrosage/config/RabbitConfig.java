@@ -1,11 +1,20 @@
 package com.example.msarrosage.config;
 
+import java.util.Map;
+
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.rabbit.retry.RepublishMessageRecoverer;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,6 +22,9 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.example.msarrosage.dto.WeatherBatch;
+import com.example.msarrosage.dto.WeatherEvent;
+
 @Configuration
 @ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
 public class RabbitConfig {
@@ -26,6 +38,39 @@ public class RabbitConfig {
     @Value("${irrigation.routing-key}")
     private String routingKey;
 
+    @Value("${irrigation.dead-letter-exchange:irrigation.dlx}")
+    private String deadLetterExchangeName;
+
+    @Value("${irrigation.dead-letter-queue:arrosage.queue.dlq}")
+    private String deadLetterQueueName;
+
+    @Value("${irrigation.consumer.concurrency:1}")
+    private int concurrency;
+
+    @Value("${irrigation.consumer.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${irrigation.consumer.prefetch:100}")
+    private int prefetch;
+
+    @Value("${irrigation.consumer.batch-size:50}")
+    private int batchSize;
+
+    @Value("${irrigation.consumer.receive-timeout:500}")
+    private long receiveTimeout;
+
+    @Value("${irrigation.consumer.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${irrigation.consumer.retry.initial-interval:1000}")
+    private long initialInterval;
+
+    @Value("${irrigation.consumer.retry.multiplier:2.0}")
+    private double multiplier;
+
+    @Value("${irrigation.consumer.retry.max-interval:10000}")
+    private long maxInterval;
+
     @Bean
     public TopicExchange irrigationExchange() {
         return new TopicExchange(exchangeName, true, false);
@@ -41,16 +86,102 @@ public class RabbitConfig {
         return BindingBuilder.bind(arrosageQueue).to(irrigationExchange).with(routingKey);
     }
 
+    /**
+     * Exclusive queue of this instance, receiving every weather message to keep its forecast cache
+     * up to date; deleted when the instance disconnects.
+     */
+    @Bean
+    public AnonymousQueue forecastCacheQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding forecastCacheBinding(AnonymousQueue forecastCacheQueue, TopicExchange irrigationExchange) {
+        return BindingBuilder.bind(forecastCacheQueue).to(irrigationExchange).with(routingKey);
+    }
+
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(deadLetterExchangeName, true, false);
+    }
+
+    @Bean
+    public Queue deadLetterQueue() {
+        return new Queue(deadLetterQueueName, true);
+    }
+
+    @Bean
+    public Binding deadLetterBinding(Queue deadLetterQueue, DirectExchange deadLetterExchange) {
+        return BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange).with(routingKey);
+    }
+
+    /**
+     * Republishes failed messages to the dead-letter exchange with the exception in their headers.
+     * The messages are republished rather than dead-lettered through queue arguments, so that the
+     * existing arrosage.queue declaration (shared with ms-meteo) stays unchanged.
+     */
+    @Bean
+    public MessageBatchRecoverer deadLetterRecoverer(RabbitTemplate rabbitTemplate) {
+        RepublishMessageRecoverer republisher = new RepublishMessageRecoverer(rabbitTemplate, deadLetterExchangeName, routingKey);
+        return (messages, cause) -> messages.forEach(message -> republisher.recover(message, cause));
+    }
+
+    /**
+     * Batch listener containers: consumers scale between concurrency and max-concurrency with the
+     * backlog and each listener call receives up to batch-size messages. A failing batch is retried
+     * with an exponential backoff, then dead-lettered.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                               MessageBatchRecoverer deadLetterRecoverer) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setConcurrentConsumers(Math.max(1, concurrency));
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(Math.max(1, batchSize));
+        factory.setReceiveTimeout(receiveTimeout);
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+            .maxAttempts(Math.max(1, maxAttempts))
+            .backOffOptions(initialInterval, multiplier, maxInterval)
+            .recoverer(deadLetterRecoverer)
+            .build());
+        return factory;
+    }
+
+    /**
+     * Single batch consumer for the forecast cache queue: cache updates are not retried, a message
+     * lost here only leaves a cache entry stale until its ETag revalidation.
+     */
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory forecastCacheListenerContainerFactory(ConnectionFactory connectionFactory) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter());
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(Math.max(1, batchSize));
+        factory.setReceiveTimeout(receiveTimeout);
+        factory.setDefaultRequeueRejected(false);
         return factory;
     }
 
     @Bean
     public MessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+        Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+        // Weather batches are published under a logical type id; per-day events, published as
+        // plain maps, are read as typed events too
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setIdClassMapping(Map.of(
+            WeatherBatch.TYPE_ID, WeatherBatch.class,
+            WeatherEvent.TYPE_ID, WeatherEvent.class,
+            WeatherEvent.MAP_TYPE_ID, WeatherEvent.class));
+        converter.setJavaTypeMapper(typeMapper);
+        return converter;
     }
 }
@@ -0,0 +1,16 @@
+package com.example.msarrosage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Water balance of a parcel: cumulative and rolling irrigated volumes, last execution and
+ * number of consecutive failed executions.
+ */
+public record BilanResponse(
+        Long parcelleId,
+        double volumeCumule,
+        double volume7Jours,
+        double volume30Jours,
+        LocalDateTime derniereExecution,
+        int echecsConsecutifs) {
+}
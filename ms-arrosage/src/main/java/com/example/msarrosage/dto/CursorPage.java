@@ -0,0 +1,12 @@
+package com.example.msarrosage.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset listing ordered by id. {@code nextCursor} is the value to pass as
+ * {@code after} to get the following page, or null when this page is the last one.
+ */
+public record CursorPage<T>(
+        List<T> items,
+        Long nextCursor) {
+}
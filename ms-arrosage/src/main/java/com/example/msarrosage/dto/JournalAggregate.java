@@ -0,0 +1,13 @@
+package com.example.msarrosage.dto;
+
+/**
+ * Journal totals of one parcel over a period, as computed by the rollup queries.
+ */
+public record JournalAggregate(
+        Long parcelleId,
+        Long executions,
+        Long succes,
+        Double volumeReelTotal,
+        Double volumePrevuTotal,
+        Double ecartAbsoluTotal) {
+}
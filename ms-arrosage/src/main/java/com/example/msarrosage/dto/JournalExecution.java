@@ -0,0 +1,13 @@
+package com.example.msarrosage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A journal entry with the parcel of its programme, as read to rebuild the water balances.
+ */
+public record JournalExecution(
+        Long id,
+        Long parcelleId,
+        LocalDateTime dateExecution,
+        Double volumeReel) {
+}
@@ -0,0 +1,13 @@
+package com.example.msarrosage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria of journal listings; null fields are ignored.
+ */
+public record JournalFilter(
+        Long programmeId,
+        Long parcelleId,
+        LocalDateTime from,
+        LocalDateTime to) {
+}
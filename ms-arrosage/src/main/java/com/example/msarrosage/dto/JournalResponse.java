@@ -0,0 +1,15 @@
+package com.example.msarrosage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a journal entry. {@code programmeId} is read from the programme_id column,
+ * without loading the programme.
+ */
+public record JournalResponse(
+        Long id,
+        Long programmeId,
+        LocalDateTime dateExecution,
+        Double volumeReel,
+        String remarque) {
+}
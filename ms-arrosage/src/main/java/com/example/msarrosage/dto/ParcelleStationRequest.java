@@ -0,0 +1,6 @@
+package com.example.msarrosage.dto;
+
+public record ParcelleStationRequest(
+        Long parcelleId,
+        Long stationId) {
+}
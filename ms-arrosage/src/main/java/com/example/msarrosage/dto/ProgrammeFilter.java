@@ -0,0 +1,13 @@
+package com.example.msarrosage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria of programme listings; null fields are ignored.
+ */
+public record ProgrammeFilter(
+        Long parcelleId,
+        String statut,
+        LocalDateTime from,
+        LocalDateTime to) {
+}
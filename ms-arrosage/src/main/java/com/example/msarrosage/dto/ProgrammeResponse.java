@@ -0,0 +1,15 @@
+package com.example.msarrosage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a programme, selected directly by paginated and streaming queries.
+ */
+public record ProgrammeResponse(
+        Long id,
+        Long parcelleId,
+        LocalDateTime datePlanifiee,
+        Integer duree,
+        Double volumePrevu,
+        String statut) {
+}
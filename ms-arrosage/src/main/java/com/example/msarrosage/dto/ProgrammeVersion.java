@@ -0,0 +1,15 @@
+package com.example.msarrosage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Current state and version of a programme, read directly by the adjusters to re-evaluate
+ * a conditional update that lost a concurrent write.
+ */
+public record ProgrammeVersion(
+        Long id,
+        LocalDateTime datePlanifiee,
+        Double volumePrevu,
+        String statut,
+        Long version) {
+}
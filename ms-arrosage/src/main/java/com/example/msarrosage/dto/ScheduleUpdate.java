@@ -0,0 +1,14 @@
+package com.example.msarrosage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * New schedule of a programme, to apply only if the programme still has {@code version}.
+ */
+public record ScheduleUpdate(
+        Long id,
+        Long version,
+        LocalDateTime datePlanifiee,
+        Double volumePrevu,
+        String statut) {
+}
@@ -0,0 +1,16 @@
+package com.example.msarrosage.dto;
+
+import java.util.List;
+
+/**
+ * All daily forecasts produced by one station refresh in ms-meteo, received as a single message.
+ */
+public record WeatherBatch(
+        Long stationId,
+        List<PrevisionResponse> previsions) {
+
+    /**
+     * Message type id used by ms-meteo when publishing weather batches.
+     */
+    public static final String TYPE_ID = "weatherBatch";
+}
@@ -0,0 +1,46 @@
+package com.example.msarrosage.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Forecast of one station and day received from ms-meteo, either as a per-day event
+ * or as one of the forecasts of a {@link WeatherBatch}.
+ */
+public record WeatherEvent(
+        Long previsionId,
+        Long stationId,
+        LocalDate date,
+        Double temperatureMax,
+        Double temperatureMin,
+        Double pluiePrevue,
+        Double vent) {
+
+    /**
+     * Message type id of per-day events published under a logical type id.
+     */
+    public static final String TYPE_ID = "weatherEvent";
+
+    /**
+     * Message type id of per-day events published by ms-meteo as plain maps.
+     */
+    public static final String MAP_TYPE_ID = "java.util.HashMap";
+
+    public PrevisionResponse toPrevision() {
+        return new PrevisionResponse(previsionId, stationId, date, temperatureMax, temperatureMin, pluiePrevue, vent);
+    }
+
+    /**
+     * Splits a weather batch into per-day events of its station.
+     */
+    public static List<WeatherEvent> fromBatch(WeatherBatch batch) {
+        if (batch.previsions() == null) {
+            return List.of();
+        }
+        return batch.previsions().stream()
+            .filter(prevision -> prevision != null)
+            .map(prevision -> new WeatherEvent(prevision.previsionId(), batch.stationId(), prevision.date(),
+                prevision.temperatureMax(), prevision.temperatureMin(), prevision.pluiePrevue(), prevision.vent()))
+            .toList();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.msarrosage.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Water balance of a parcel, updated in the transaction of each journal write.
+ * The daily volumes of the rolling window are kept in {@link BilanParcelleJour}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "bilan_parcelle")
+public class BilanParcelle {
+
+    @Id
+    @Column(name = "parcelle_id")
+    private Long parcelleId;
+
+    private double volumeCumule;
+
+    private LocalDateTime derniereExecution;
+
+    private int echecsConsecutifs;
+}
@@ -0,0 +1,40 @@
+package com.example.msarrosage.entities;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Volume irrigated on a parcel during one day, kept for the rolling window of the water balance.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "bilan_parcelle_jour",
+       uniqueConstraints = @UniqueConstraint(name = "uk_bilan_parcelle_jour", columnNames = {"parcelle_id", "jour"}))
+public class BilanParcelleJour {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "parcelle_id", nullable = false)
+    private Long parcelleId;
+
+    @Column(nullable = false)
+    private LocalDate jour;
+
+    private double volume;
+}
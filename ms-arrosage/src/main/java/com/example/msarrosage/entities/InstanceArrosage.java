@@ -0,0 +1,30 @@
+package com.example.msarrosage.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Heartbeat of a running ms-arrosage instance, used to shard the sweep jobs across live instances.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "instance_arrosage")
+public class InstanceArrosage {
+
+    @Id
+    @Column(name = "instance_id", length = 100)
+    private String instanceId;
+
+    private LocalDateTime derniereActivite;
+}
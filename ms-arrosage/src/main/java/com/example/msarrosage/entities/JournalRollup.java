@@ -0,0 +1,60 @@
+package com.example.msarrosage.entities;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-parcel aggregate of the irrigation journal over one day or one week (starting on Monday).
+ * An execution counts as successful when it delivered a positive volume. Planned volumes are
+ * those of the executed programmes, and {@code ecartAbsoluTotal} sums |actual - planned| over
+ * successful executions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "journal_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_journal_rollup_periode",
+                                             columnNames = {"granularite", "periode_debut", "parcelle_id"}))
+public class JournalRollup {
+
+    public static final String JOUR = "JOUR";
+    public static final String SEMAINE = "SEMAINE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 10)
+    private String granularite;
+
+    @Column(name = "periode_debut", nullable = false)
+    private LocalDate periodeDebut;
+
+    @Column(name = "parcelle_id", nullable = false)
+    private Long parcelleId;
+
+    private long executions;
+
+    private long succes;
+
+    private long echecs;
+
+    private double volumeReelTotal;
+
+    private double volumePrevuTotal;
+
+    private double ecartAbsoluTotal;
+}
@@ -0,0 +1,36 @@
+package com.example.msarrosage.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Associates a parcel with the weather station whose forecasts drive its irrigation programmes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "parcelle_station",
+       indexes = @Index(name = "idx_parcelle_station_station", columnList = "station_id"))
+public class ParcelleStation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "parcelle_id", nullable = false, unique = true)
+    private Long parcelleId;
+
+    @Column(name = "station_id", nullable = false)
+    private Long stationId;
+}
@@ -2,11 +2,16 @@ package com.example.msarrosage.entities;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,7 +22,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "programme_arrosage")
+@Table(name = "programme_arrosage",
+       indexes = @Index(name = "idx_programme_statut_date", columnList = "statut, date_planifiee"))
 public class ProgrammeArrosage {
 
     @Id
@@ -33,4 +39,20 @@ public class ProgrammeArrosage {
     private Double volumePrevu;
 
     private String statut;
+
+    /** Instance executing the programme while it is EN_COURS */
+    @JsonIgnore
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    /** After this time an EN_COURS programme is considered abandoned and planned again */
+    @JsonIgnore
+    @Column(name = "lease_expiry")
+    private LocalDateTime leaseExpiry;
+
+    /** Optimistic lock: every write checks and increments it, including the conditional bulk updates */
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,50 @@
+package com.example.msarrosage.entities;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Statuses of a {@link ProgrammeArrosage} and the transitions allowed between them:
+ *
+ * PLANIFIE -> AJUSTE / REPLANIFIE -> EN_COURS -> EXECUTED / FAILED
+ *
+ * An EN_COURS programme whose lease expired goes back to PLANIFIE. EXECUTED and FAILED are final.
+ */
+public final class ProgrammeStatut {
+
+    public static final String PLANIFIE = "PLANIFIE";
+    public static final String AJUSTE = "AJUSTE";
+    public static final String REPLANIFIE = "REPLANIFIE";
+    public static final String EN_COURS = "EN_COURS";
+    public static final String EXECUTED = "EXECUTED";
+    public static final String FAILED = "FAILED";
+
+    /** Statuses the weather adjusters may change */
+    public static final Set<String> ADJUSTABLE = Set.of(PLANIFIE, REPLANIFIE);
+
+    /** Statuses that can still be postponed or edited */
+    public static final Set<String> PENDING = Set.of(PLANIFIE, AJUSTE, REPLANIFIE);
+
+    /** Statuses claimed by the executor once the planned time has arrived */
+    public static final Set<String> EXECUTABLE = PENDING;
+
+    private static final Map<String, Set<String>> TRANSITIONS = Map.of(
+        PLANIFIE, Set.of(AJUSTE, REPLANIFIE, EN_COURS),
+        AJUSTE, Set.of(AJUSTE, REPLANIFIE, EN_COURS),
+        REPLANIFIE, Set.of(AJUSTE, REPLANIFIE, EN_COURS),
+        EN_COURS, Set.of(EXECUTED, FAILED, PLANIFIE),
+        EXECUTED, Set.of(),
+        FAILED, Set.of());
+
+    private ProgrammeStatut() {
+    }
+
+    /**
+     * @return true if a programme may go from {@code from} to {@code to}; a programme without
+     * status (created before statuses existed) is treated as PLANIFIE
+     */
+    public static boolean canTransition(String from, String to) {
+        Set<String> allowed = TRANSITIONS.get(from != null ? from : PLANIFIE);
+        return allowed != null && allowed.contains(to);
+    }
+}
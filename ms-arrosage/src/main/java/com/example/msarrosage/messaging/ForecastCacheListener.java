@@ -0,0 +1,78 @@
+package com.example.msarrosage.messaging;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.msarrosage.clients.MeteoForecastCache;
+import com.example.msarrosage.dto.PrevisionResponse;
+import com.example.msarrosage.dto.WeatherBatch;
+import com.example.msarrosage.dto.WeatherEvent;
+
+/**
+ * Keeps the local forecast cache of every instance up to date with the weather messages.
+ * Each instance receives all the messages on its own anonymous queue, whereas the shared
+ * arrosage.queue delivers each message to a single instance for the adjustment runs.
+ * Unreadable messages are skipped here; they are dead-lettered by {@link WeatherChangeListener}.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
+public class ForecastCacheListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastCacheListener.class);
+
+    private final MeteoForecastCache forecastCache;
+    private final MessageConverter messageConverter;
+
+    public ForecastCacheListener(MeteoForecastCache forecastCache, MessageConverter messageConverter) {
+        this.forecastCache = forecastCache;
+        this.messageConverter = messageConverter;
+    }
+
+    @RabbitListener(queues = "#{forecastCacheQueue.name}", containerFactory = "forecastCacheListenerContainerFactory")
+    public void onWeatherMessages(List<Message> messages) {
+        Map<Long, List<PrevisionResponse>> changedByStation = new LinkedHashMap<>();
+        Set<Long> invalidated = new HashSet<>();
+        for (Message message : messages) {
+            List<WeatherEvent> events;
+            try {
+                Object payload = messageConverter.fromMessage(message);
+                if (payload instanceof WeatherEvent event) {
+                    events = List.of(event);
+                } else if (payload instanceof WeatherBatch batch) {
+                    events = WeatherEvent.fromBatch(batch);
+                } else {
+                    continue;
+                }
+            } catch (MessageConversionException e) {
+                log.debug("Message météo illisible ignoré par le cache: {}", e.getMessage());
+                continue;
+            }
+            for (WeatherEvent event : events) {
+                if (event == null || event.stationId() == null) {
+                    continue;
+                }
+                if (event.date() != null) {
+                    changedByStation.computeIfAbsent(event.stationId(), id -> new ArrayList<>()).add(event.toPrevision());
+                } else {
+                    // No usable forecast in the event: fetch the station again on its next lookup
+                    invalidated.add(event.stationId());
+                }
+            }
+        }
+        changedByStation.forEach(forecastCache::refresh);
+        invalidated.forEach(forecastCache::invalidate);
+    }
+}
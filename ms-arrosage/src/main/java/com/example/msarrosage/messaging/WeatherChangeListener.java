@@ -1,30 +1,99 @@
 package com.example.msarrosage.messaging;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import com.example.msarrosage.services.IArrosageService;
+import com.example.msarrosage.dto.WeatherBatch;
+import com.example.msarrosage.dto.WeatherEvent;
 
+/**
+ * Consumes weather messages from ms-meteo in batches: per-day events and per-station weather
+ * batches are both converted into typed {@link WeatherEvent}s and handed to the coalescer at once.
+ * A batch is only acknowledged once the coalesced adjustment runs of its events are done, so a
+ * failing adjustment makes the batch retried then dead-lettered, and events buffered when the
+ * instance dies are delivered again.
+ */
 @Component
 @ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
 public class WeatherChangeListener {
 
     private static final Logger log = LoggerFactory.getLogger(WeatherChangeListener.class);
 
-    private final IArrosageService arrosageService;
+    private final WeatherEventCoalescer coalescer;
+    private final MessageConverter messageConverter;
+    private final MessageBatchRecoverer deadLetterRecoverer;
+    private final long adjustmentTimeoutMillis;
 
-    public WeatherChangeListener(IArrosageService arrosageService) {
-        this.arrosageService = arrosageService;
+    public WeatherChangeListener(WeatherEventCoalescer coalescer,
+                                 MessageConverter messageConverter,
+                                 MessageBatchRecoverer deadLetterRecoverer,
+                                 @Value("${irrigation.consumer.adjustment-timeout:60000}") long adjustmentTimeoutMillis) {
+        this.coalescer = coalescer;
+        this.messageConverter = messageConverter;
+        this.deadLetterRecoverer = deadLetterRecoverer;
+        this.adjustmentTimeoutMillis = adjustmentTimeoutMillis;
     }
 
+    /**
+     * Messages that cannot be converted are dead-lettered one by one, without failing the others.
+     */
     @RabbitListener(queues = "${irrigation.queue}")
-    public void onWeatherChange(Map<String, Object> payload) {
-        log.info("Message météo reçu: {}", payload);
-        arrosageService.handleWeatherEvent(payload);
+    public void onWeatherMessages(List<Message> messages) {
+        List<WeatherEvent> events = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            Object payload;
+            try {
+                payload = messageConverter.fromMessage(message);
+            } catch (MessageConversionException e) {
+                log.warn("Message météo illisible envoyé en dead-letter: {}", e.getMessage());
+                deadLetterRecoverer.recover(List.of(message), e);
+                continue;
+            }
+            if (payload instanceof WeatherEvent event) {
+                events.add(event);
+            } else if (payload instanceof WeatherBatch batch) {
+                events.addAll(WeatherEvent.fromBatch(batch));
+            } else {
+                log.warn("Message météo de type non supporté envoyé en dead-letter: {}", message.getMessageProperties());
+                deadLetterRecoverer.recover(List.of(message),
+                    new MessageConversionException("Type de message météo non supporté"));
+            }
+        }
+
+        log.info("{} messages météo reçus: {} prévisions", messages.size(), events.size());
+        if (!events.isEmpty()) {
+            awaitAdjustments(coalescer.submitAll(events));
+        }
+    }
+
+    /**
+     * Waits for the adjustment runs of the batch; failing here makes the container retry the batch.
+     */
+    private void awaitAdjustments(CompletableFuture<Void> adjustments) {
+        try {
+            adjustments.get(adjustmentTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ajustement météo en échec: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Ajustement météo non terminé après " + adjustmentTimeoutMillis + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente de l'ajustement météo interrompue", e);
+        }
     }
 }
@@ -0,0 +1,171 @@
+package com.example.msarrosage.messaging;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.msarrosage.clients.MeteoForecastCache;
+import com.example.msarrosage.dto.PrevisionResponse;
+import com.example.msarrosage.dto.WeatherEvent;
+import com.example.msarrosage.services.IArrosageService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Debounces weather events per station.
+ * Events received for a station during the coalescing window are buffered, keeping only the
+ * latest forecast per (station, date); when the window closes a single adjustment run is
+ * executed for the station with the buffered forecasts. Callers get a future completed by the
+ * adjustment runs of their events, so that messages are only acknowledged once applied.
+ * The forecast cache is kept up to date on every instance by the {@link ForecastCacheListener}.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
+public class WeatherEventCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherEventCoalescer.class);
+
+    private final IArrosageService arrosageService;
+    private final MeteoForecastCache forecastCache;
+    private final long windowMillis;
+    private final ScheduledExecutorService flushExecutor;
+    private final Map<Long, StationBuffer> pending = new ConcurrentHashMap<>();
+
+    private final Counter eventsReceived;
+    private final Counter adjustmentRuns;
+
+    public WeatherEventCoalescer(IArrosageService arrosageService,
+                                 MeteoForecastCache forecastCache,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.weather.coalescing.window:5000}") long windowMillis) {
+        this.arrosageService = arrosageService;
+        this.forecastCache = forecastCache;
+        this.windowMillis = Math.max(0, windowMillis);
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weather-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.eventsReceived = Counter.builder("arrosage.weather.events.received")
+            .description("Weather events received from ms-meteo")
+            .register(meterRegistry);
+        this.adjustmentRuns = Counter.builder("arrosage.weather.adjustments.executed")
+            .description("Adjustment runs executed after coalescing weather events")
+            .register(meterRegistry);
+        meterRegistry.gauge("arrosage.weather.events.pending.stations", pending, Map::size);
+    }
+
+    /**
+     * Buffers a bulk of weather events. Events are grouped by station and the first events of a
+     * station open its coalescing window. An event without date triggers a full refresh of its station.
+     *
+     * @return a future completed once the adjustment runs including these events are done,
+     *         exceptionally if one of them failed
+     */
+    public CompletableFuture<Void> submitAll(List<WeatherEvent> events) {
+        eventsReceived.increment(events.size());
+        Map<Long, List<WeatherEvent>> eventsByStation = new HashMap<>();
+        for (WeatherEvent event : events) {
+            if (event == null || event.stationId() == null) {
+                log.warn("Événement météo sans station ignoré: {}", event);
+                continue;
+            }
+            eventsByStation.computeIfAbsent(event.stationId(), id -> new ArrayList<>()).add(event);
+        }
+        List<CompletableFuture<Void>> adjustments = new ArrayList<>(eventsByStation.size());
+        eventsByStation.forEach((stationId, stationEvents) -> adjustments.add(submitStation(stationId, stationEvents)));
+        return CompletableFuture.allOf(adjustments.toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> submitStation(Long stationId, List<WeatherEvent> events) {
+        List<PrevisionResponse> previsions = new ArrayList<>(events.size());
+        boolean fullRefresh = false;
+        for (WeatherEvent event : events) {
+            if (event.date() != null) {
+                previsions.add(event.toPrevision());
+            } else {
+                fullRefresh = true;
+            }
+        }
+
+        boolean[] opened = new boolean[1];
+        boolean refreshAll = fullRefresh;
+        StationBuffer joined = pending.compute(stationId, (id, buffer) -> {
+            if (buffer == null) {
+                buffer = new StationBuffer();
+                opened[0] = true;
+            }
+            for (PrevisionResponse prevision : previsions) {
+                buffer.previsionsByDate.put(prevision.date(), prevision);
+            }
+            // No usable forecast in an event: fall back to fetching forecasts from ms-meteo
+            buffer.fullRefresh |= refreshAll;
+            return buffer;
+        });
+
+        if (opened[0]) {
+            scheduleFlush(stationId);
+        }
+        return joined.adjusted;
+    }
+
+    private void scheduleFlush(Long stationId) {
+        flushExecutor.schedule(() -> flush(stationId), windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush(Long stationId) {
+        StationBuffer buffer = pending.remove(stationId);
+        if (buffer == null) {
+            return;
+        }
+
+        try {
+            adjustmentRuns.increment();
+            if (buffer.fullRefresh) {
+                // Make sure the adjustment fetches the station again, whether or not the broadcast came first
+                forecastCache.invalidate(stationId);
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("stationId", stationId);
+                arrosageService.handleWeatherEvent(payload);
+            } else {
+                List<PrevisionResponse> previsions = new ArrayList<>(buffer.previsionsByDate.values());
+                int changed = arrosageService.adjustProgrammesForStation(stationId, previsions);
+                log.info("Station {}: {} prévisions regroupées, {} programmes modifiés", stationId, previsions.size(), changed);
+            }
+            buffer.adjusted.complete(null);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'ajustement regroupé pour la station {}: {}", stationId, e.getMessage(), e);
+            buffer.adjusted.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Flush the stations still buffered, so that the listeners waiting for them can acknowledge their messages.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdownNow();
+        new ArrayList<>(pending.keySet()).forEach(this::flush);
+    }
+
+    private static final class StationBuffer {
+        private final Map<LocalDate, PrevisionResponse> previsionsByDate = new HashMap<>();
+        private boolean fullRefresh;
+        private final CompletableFuture<Void> adjusted = new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.msarrosage.messaging;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import com.example.msarrosage.dto.PrevisionResponse;
+
+/**
+ * Helpers to read the loosely typed weather event payloads published by ms-meteo.
+ */
+public final class WeatherEventPayloads {
+
+    private WeatherEventPayloads() {
+    }
+
+    public static Long readLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    public static Double readDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    /**
+     * Reads a forecast date, which is either an ISO string, a [year, month, day] array
+     * (Jackson default for LocalDate) or a LocalDate.
+     * @return the date, or null if absent or invalid
+     */
+    public static LocalDate readDate(Object value) {
+        try {
+            if (value instanceof LocalDate date) {
+                return date;
+            }
+            if (value instanceof String text && !text.isBlank()) {
+                return LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text);
+            }
+            if (value instanceof List<?> parts && parts.size() >= 3
+                    && parts.get(0) instanceof Number year && parts.get(1) instanceof Number month
+                    && parts.get(2) instanceof Number day) {
+                return LocalDate.of(year.intValue(), month.intValue(), day.intValue());
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * Converts a per-day weather event into a forecast.
+     * @return the forecast, or null if the payload carries no station or date
+     */
+    public static PrevisionResponse toPrevision(Map<String, Object> payload) {
+        Long stationId = readLong(payload.get("stationId"));
+        LocalDate date = readDate(payload.get("date"));
+        if (stationId == null || date == null) {
+            return null;
+        }
+        return new PrevisionResponse(
+            readLong(payload.get("previsionId")),
+            stationId,
+            date,
+            readDouble(payload.get("temperatureMax")),
+            readDouble(payload.get("temperatureMin")),
+            readDouble(payload.get("pluiePrevue")),
+            readDouble(payload.get("vent")));
+    }
+}
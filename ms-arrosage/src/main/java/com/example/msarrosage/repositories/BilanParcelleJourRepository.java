@@ -0,0 +1,30 @@
+package com.example.msarrosage.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.msarrosage.entities.BilanParcelleJour;
+
+public interface BilanParcelleJourRepository extends JpaRepository<BilanParcelleJour, Long> {
+
+    boolean existsByParcelleIdAndJour(Long parcelleId, LocalDate jour);
+
+    List<BilanParcelleJour> findByParcelleIdAndJourGreaterThanEqual(Long parcelleId, LocalDate jour);
+
+    /**
+     * Relative update, so that concurrent writers never overwrite each other.
+     */
+    @Modifying
+    @Query("UPDATE BilanParcelleJour d SET d.volume = d.volume + :volume "
+        + "WHERE d.parcelleId = :parcelleId AND d.jour = :jour")
+    int addVolume(@Param("parcelleId") Long parcelleId, @Param("jour") LocalDate jour, @Param("volume") double volume);
+
+    @Modifying
+    @Query("DELETE FROM BilanParcelleJour d WHERE d.jour < :jour")
+    int deleteBefore(@Param("jour") LocalDate jour);
+}
@@ -0,0 +1,31 @@
+package com.example.msarrosage.repositories;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.msarrosage.entities.BilanParcelle;
+
+public interface BilanParcelleRepository extends JpaRepository<BilanParcelle, Long> {
+
+    /**
+     * Adds an execution to the balance of a parcel with relative updates, so that concurrent
+     * writers never overwrite each other. A zero volume extends the failure streak.
+     */
+    @Modifying
+    @Query("UPDATE BilanParcelle b SET b.volumeCumule = b.volumeCumule + :volume, "
+        + "b.derniereExecution = CASE WHEN b.derniereExecution IS NULL OR b.derniereExecution < :dateExecution "
+        + "THEN :dateExecution ELSE b.derniereExecution END, "
+        + "b.echecsConsecutifs = CASE WHEN :volume > 0 THEN 0 ELSE b.echecsConsecutifs + 1 END "
+        + "WHERE b.parcelleId = :parcelleId")
+    int addExecution(@Param("parcelleId") Long parcelleId,
+                     @Param("dateExecution") LocalDateTime dateExecution,
+                     @Param("volume") double volume);
+
+    @Modifying
+    @Query("UPDATE BilanParcelle b SET b.volumeCumule = b.volumeCumule - :volume WHERE b.parcelleId = :parcelleId")
+    int removeVolume(@Param("parcelleId") Long parcelleId, @Param("volume") double volume);
+}
@@ -0,0 +1,21 @@
+package com.example.msarrosage.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.msarrosage.entities.InstanceArrosage;
+
+public interface InstanceArrosageRepository extends JpaRepository<InstanceArrosage, String> {
+
+    @Query("SELECT i.instanceId FROM InstanceArrosage i WHERE i.derniereActivite >= :since ORDER BY i.instanceId")
+    List<String> findLiveInstanceIds(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM InstanceArrosage i WHERE i.derniereActivite < :before")
+    int deleteInactive(@Param("before") LocalDateTime before);
+}
@@ -1,8 +1,86 @@
 package com.example.msarrosage.repositories;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.example.msarrosage.dto.JournalAggregate;
+import com.example.msarrosage.dto.JournalExecution;
+import com.example.msarrosage.dto.JournalResponse;
 import com.example.msarrosage.entities.JournalArrosage;
 
+import jakarta.persistence.QueryHint;
+
 public interface JournalArrosageRepository extends JpaRepository<JournalArrosage, Long> {
+    
+    // j.programme.id resolves to the programme_id foreign key: no join, no proxy
+    String JOURNAL_VIEW = "SELECT new com.example.msarrosage.dto.JournalResponse("
+        + "j.id, j.programme.id, j.dateExecution, j.volumeReel, j.remarque) FROM JournalArrosage j ";
+    
+    String JOURNAL_FILTER = "WHERE (:programmeId IS NULL OR j.programme.id = :programmeId) "
+        + "AND (:parcelleId IS NULL OR j.programme.id IN "
+        + "(SELECT p.id FROM ProgrammeArrosage p WHERE p.parcelleId = :parcelleId)) "
+        + "AND (:startDate IS NULL OR j.dateExecution >= :startDate) "
+        + "AND (:endDate IS NULL OR j.dateExecution <= :endDate) ";
+    
+    @Query(JOURNAL_VIEW + "ORDER BY j.id")
+    List<JournalResponse> findAllResponses();
+    
+    /**
+     * Keyset page of filtered journal entries ordered by id, starting after {@code afterId}.
+     * Null criteria are ignored; only the page size of the {@link Pageable} is meaningful.
+     */
+    @Query(JOURNAL_VIEW + JOURNAL_FILTER + "AND j.id > :afterId ORDER BY j.id")
+    List<JournalResponse> findJournalPage(@Param("programmeId") Long programmeId,
+                                          @Param("parcelleId") Long parcelleId,
+                                          @Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+    
+    /**
+     * Streams filtered journal entries ordered by id. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(JOURNAL_VIEW + JOURNAL_FILTER + "ORDER BY j.id")
+    Stream<JournalResponse> streamJournal(@Param("programmeId") Long programmeId,
+                                          @Param("parcelleId") Long parcelleId,
+                                          @Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT MIN(j.dateExecution) FROM JournalArrosage j")
+    Optional<LocalDateTime> findFirstDateExecution();
+    
+    /**
+     * Aggregates the executions of [startDate, endDate) per parcel; successful executions are
+     * those with a positive actual volume.
+     */
+    @Query("SELECT new com.example.msarrosage.dto.JournalAggregate(p.parcelleId, COUNT(j), "
+        + "SUM(CASE WHEN j.volumeReel > 0 THEN 1 ELSE 0 END), "
+        + "COALESCE(SUM(j.volumeReel), 0.0), COALESCE(SUM(p.volumePrevu), 0.0), "
+        + "COALESCE(SUM(CASE WHEN j.volumeReel > 0 THEN ABS(j.volumeReel - p.volumePrevu) ELSE 0.0 END), 0.0)) "
+        + "FROM JournalArrosage j JOIN j.programme p "
+        + "WHERE j.dateExecution >= :startDate AND j.dateExecution < :endDate GROUP BY p.parcelleId")
+    List<JournalAggregate> aggregateByParcelle(@Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT j.id FROM JournalArrosage j WHERE j.dateExecution < :before ORDER BY j.id")
+    List<Long> findIdsExecutedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+    
+    /**
+     * Streams the journal entries after {@code afterId} with the parcel of their programme, ordered by id.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.msarrosage.dto.JournalExecution(j.id, p.parcelleId, j.dateExecution, j.volumeReel) "
+        + "FROM JournalArrosage j JOIN j.programme p WHERE j.id > :afterId ORDER BY j.id")
+    Stream<JournalExecution> streamExecutionsAfter(@Param("afterId") Long afterId);
 }
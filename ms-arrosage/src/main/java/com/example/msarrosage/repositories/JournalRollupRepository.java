@@ -0,0 +1,37 @@
+package com.example.msarrosage.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.msarrosage.dto.JournalAggregate;
+import com.example.msarrosage.entities.JournalRollup;
+
+public interface JournalRollupRepository extends JpaRepository<JournalRollup, Long> {
+
+    List<JournalRollup> findByGranulariteAndPeriodeDebut(String granularite, LocalDate periodeDebut);
+
+    @Query("SELECT MAX(r.periodeDebut) FROM JournalRollup r WHERE r.granularite = :granularite")
+    Optional<LocalDate> findLastPeriodeDebut(@Param("granularite") String granularite);
+
+    @Query("SELECT r FROM JournalRollup r WHERE r.granularite = :granularite "
+        + "AND (:parcelleId IS NULL OR r.parcelleId = :parcelleId) "
+        + "AND r.periodeDebut BETWEEN :startDate AND :endDate ORDER BY r.periodeDebut, r.parcelleId")
+    List<JournalRollup> findRollups(@Param("granularite") String granularite,
+                                    @Param("parcelleId") Long parcelleId,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+
+    /**
+     * Sums the daily rollups of [startDate, endDate] per parcel.
+     */
+    @Query("SELECT new com.example.msarrosage.dto.JournalAggregate(r.parcelleId, SUM(r.executions), SUM(r.succes), "
+        + "SUM(r.volumeReelTotal), SUM(r.volumePrevuTotal), SUM(r.ecartAbsoluTotal)) FROM JournalRollup r "
+        + "WHERE r.granularite = 'JOUR' AND r.periodeDebut BETWEEN :startDate AND :endDate GROUP BY r.parcelleId")
+    List<JournalAggregate> sumDailyRollups(@Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,12 @@
+package com.example.msarrosage.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.msarrosage.entities.ParcelleStation;
+
+public interface ParcelleStationRepository extends JpaRepository<ParcelleStation, Long> {
+
+    Optional<ParcelleStation> findByParcelleId(Long parcelleId);
+}
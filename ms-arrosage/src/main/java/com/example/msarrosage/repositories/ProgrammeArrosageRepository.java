@@ -1,15 +1,28 @@
 package com.example.msarrosage.repositories;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.example.msarrosage.dto.ProgrammeResponse;
+import com.example.msarrosage.dto.ProgrammeVersion;
 import com.example.msarrosage.entities.ProgrammeArrosage;
 
-public interface ProgrammeArrosageRepository extends JpaRepository<ProgrammeArrosage, Long> {
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface ProgrammeArrosageRepository extends JpaRepository<ProgrammeArrosage, Long>, ProgrammeScheduleRepository {
     
     @Query("SELECT p FROM ProgrammeArrosage p WHERE p.parcelleId = :parcelleId AND p.datePlanifiee BETWEEN :startDate AND :endDate")
     List<ProgrammeArrosage> findUpcomingProgrammes(@Param("parcelleId") Long parcelleId, 
@@ -19,4 +32,104 @@ public interface ProgrammeArrosageRepository extends JpaRepository<ProgrammeArro
     @Query("SELECT p FROM ProgrammeArrosage p WHERE p.statut IN ('PLANIFIE', 'REPLANIFIE') AND p.datePlanifiee BETWEEN :startDate AND :endDate")
     List<ProgrammeArrosage> findUpcomingProgrammesByDateRange(@Param("startDate") LocalDateTime startDate, 
                                                                @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT p FROM ProgrammeArrosage p WHERE p.parcelleId IN :parcelleIds AND p.statut IN ('PLANIFIE', 'REPLANIFIE') AND p.datePlanifiee BETWEEN :startDate AND :endDate")
+    List<ProgrammeArrosage> findUpcomingProgrammesForParcelles(@Param("parcelleIds") Collection<Long> parcelleIds,
+                                                               @Param("startDate") LocalDateTime startDate, 
+                                                               @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Keyset query over the (statut, date_planifiee) index: returns the next chunk of programmes
+     * with one of the given statuses whose planned time has arrived, ordered by id and starting after
+     * {@code afterId}. Only the page size of the {@link Pageable} is meaningful.
+     * 
+     * Rows are locked with FOR UPDATE SKIP LOCKED: concurrent instances claiming due programmes
+     * each get disjoint rows instead of waiting on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM ProgrammeArrosage p WHERE p.statut IN :statuts AND p.datePlanifiee <= :now AND p.id > :afterId ORDER BY p.id")
+    List<ProgrammeArrosage> findDueProgrammes(@Param("statuts") Collection<String> statuts,
+                                              @Param("now") LocalDateTime now,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+    
+    String PROGRAMME_VIEW = "SELECT new com.example.msarrosage.dto.ProgrammeResponse("
+        + "p.id, p.parcelleId, p.datePlanifiee, p.duree, p.volumePrevu, p.statut) FROM ProgrammeArrosage p "
+        + "WHERE (:parcelleId IS NULL OR p.parcelleId = :parcelleId) "
+        + "AND (:statut IS NULL OR p.statut = :statut) "
+        + "AND (:startDate IS NULL OR p.datePlanifiee >= :startDate) "
+        + "AND (:endDate IS NULL OR p.datePlanifiee <= :endDate) ";
+    
+    /**
+     * Keyset page of filtered programmes ordered by id, starting after {@code afterId}.
+     * Null criteria are ignored; only the page size of the {@link Pageable} is meaningful.
+     */
+    @Query(PROGRAMME_VIEW + "AND p.id > :afterId ORDER BY p.id")
+    List<ProgrammeResponse> findProgrammePage(@Param("parcelleId") Long parcelleId,
+                                              @Param("statut") String statut,
+                                              @Param("startDate") LocalDateTime startDate,
+                                              @Param("endDate") LocalDateTime endDate,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+    
+    /**
+     * Streams filtered programmes ordered by id. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PROGRAMME_VIEW + "ORDER BY p.id")
+    Stream<ProgrammeResponse> streamProgrammes(@Param("parcelleId") Long parcelleId,
+                                               @Param("statut") String statut,
+                                               @Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * Plans again the EN_COURS programmes whose lease has expired, i.e. whose executing instance
+     * stopped before recording a result.
+     */
+    @Modifying
+    @Query("UPDATE ProgrammeArrosage p SET p.statut = 'PLANIFIE', p.leaseOwner = NULL, p.leaseExpiry = NULL, "
+        + "p.version = p.version + 1 WHERE p.statut = 'EN_COURS' AND p.leaseExpiry < :now")
+    int releaseExpiredLeases(@Param("now") LocalDateTime now);
+    
+    /**
+     * Extends the lease of an EN_COURS programme, provided the given instance still holds it.
+     * @return 1 if renewed, 0 if the lease expired or was taken over
+     */
+    @Modifying
+    @Query("UPDATE ProgrammeArrosage p SET p.leaseExpiry = :expiry WHERE p.id = :id AND p.statut = 'EN_COURS' "
+        + "AND p.leaseOwner = :owner AND p.leaseExpiry >= :now")
+    int renewLease(@Param("id") Long id,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("expiry") LocalDateTime expiry);
+    
+    String VERSION_VIEW = "SELECT new com.example.msarrosage.dto.ProgrammeVersion("
+        + "p.id, p.datePlanifiee, p.volumePrevu, p.statut, p.version) FROM ProgrammeArrosage p WHERE p.id = :id";
+    
+    /**
+     * Current state of a programme, read from the database even when the entity is already
+     * loaded in the persistence context.
+     */
+    @Query(VERSION_VIEW)
+    Optional<ProgrammeVersion> findProgrammeVersion(@Param("id") Long id);
+    
+    /**
+     * Same as {@link #findProgrammeVersion(Long)} with a FOR UPDATE lock: the locking read returns the
+     * latest committed row rather than the transaction snapshot, and keeps it until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(VERSION_VIEW)
+    Optional<ProgrammeVersion> lockProgrammeVersion(@Param("id") Long id);
+    
+    /**
+     * Moves a programme to REPLANIFIE on a new date if its status is still one of {@code statuts}.
+     * @return 1 if applied, 0 if the programme does not exist or can no longer be postponed
+     */
+    @Modifying
+    @Query("UPDATE ProgrammeArrosage p SET p.datePlanifiee = :datePlanifiee, p.statut = 'REPLANIFIE', "
+        + "p.version = p.version + 1 WHERE p.id = :id AND p.statut IN :statuts")
+    int replan(@Param("id") Long id,
+               @Param("statuts") Collection<String> statuts,
+               @Param("datePlanifiee") LocalDateTime datePlanifiee);
 }
@@ -0,0 +1,19 @@
+package com.example.msarrosage.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.example.msarrosage.dto.ScheduleUpdate;
+
+/**
+ * Schedule writes of {@link ProgrammeArrosageRepository} that JPQL cannot batch.
+ */
+public interface ProgrammeScheduleRepository {
+
+    /**
+     * Conditional updates of programme schedules, sent as JDBC batches: each update is applied only if
+     * nobody wrote the row since its version was read and its status is still one of {@code statuts}.
+     * @return for each update, in order, true if applied, false on conflict
+     */
+    boolean[] updateSchedules(List<ScheduleUpdate> updates, Collection<String> statuts);
+}
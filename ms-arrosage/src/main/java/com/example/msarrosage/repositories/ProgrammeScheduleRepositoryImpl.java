@@ -0,0 +1,64 @@
+package com.example.msarrosage.repositories;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.msarrosage.dto.ScheduleUpdate;
+
+/**
+ * Runs in the caller's transaction: the JPA transaction manager exposes its connection to the
+ * {@link JdbcTemplate}. The persistence context is not updated, so the programmes it holds keep
+ * their old schedule and version until re-read.
+ */
+class ProgrammeScheduleRepositoryImpl implements ProgrammeScheduleRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    ProgrammeScheduleRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public boolean[] updateSchedules(List<ScheduleUpdate> updates, Collection<String> statuts) {
+        boolean[] applied = new boolean[updates.size()];
+        if (updates.isEmpty()) {
+            return applied;
+        }
+        List<String> statutList = new ArrayList<>(statuts);
+        String sql = "UPDATE programme_arrosage SET date_planifiee = ?, volume_prevu = ?, statut = ?, "
+            + "version = version + 1 WHERE id = ? AND version = ? AND statut IN ("
+            + String.join(", ", Collections.nCopies(statutList.size(), "?")) + ")";
+
+        int[][] counts = jdbcTemplate.batchUpdate(sql, updates, batchSize, (ps, update) -> {
+            ps.setObject(1, update.datePlanifiee());
+            ps.setObject(2, update.volumePrevu());
+            ps.setString(3, update.statut());
+            ps.setLong(4, update.id());
+            ps.setLong(5, update.version());
+            for (int i = 0; i < statutList.size(); i++) {
+                ps.setString(6 + i, statutList.get(i));
+            }
+        });
+
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO only comes from drivers rewriting batches, which would hide conflicts
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    throw new IllegalStateException("Le pilote JDBC ne renvoie pas le nombre de lignes modifiées");
+                }
+                applied[index++] = count == 1;
+            }
+        }
+        return applied;
+    }
+}
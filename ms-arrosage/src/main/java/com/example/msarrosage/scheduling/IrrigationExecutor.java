@@ -1,23 +1,29 @@
 package com.example.msarrosage.scheduling;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.example.msarrosage.entities.JournalArrosage;
+import com.example.msarrosage.actuation.ActuationCommand;
+import com.example.msarrosage.actuation.ActuationDispatcher;
+import com.example.msarrosage.cluster.ClusterMembership;
 import com.example.msarrosage.entities.ProgrammeArrosage;
-import com.example.msarrosage.repositories.JournalArrosageRepository;
+import com.example.msarrosage.entities.ProgrammeStatut;
 import com.example.msarrosage.repositories.ProgrammeArrosageRepository;
 
 /**
- * Scheduled task that automatically executes planned irrigation schedules
- * and creates execution logs when their planned time arrives.
+ * Scheduled task that dispatches planned irrigation schedules to the actuation
+ * workers when their planned time arrives.
  */
 @Component
 @ConditionalOnProperty(name = "spring.scheduling.enabled", havingValue = "true", matchIfMissing = true)
@@ -26,12 +32,24 @@ public class IrrigationExecutor {
     private static final Logger log = LoggerFactory.getLogger(IrrigationExecutor.class);
 
     private final ProgrammeArrosageRepository programmeRepo;
-    private final JournalArrosageRepository journalRepo;
+    private final ActuationDispatcher dispatcher;
+    private final ClusterMembership clusterMembership;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long leaseMillis;
 
     public IrrigationExecutor(ProgrammeArrosageRepository programmeRepo,
-                              JournalArrosageRepository journalRepo) {
+                              ActuationDispatcher dispatcher,
+                              ClusterMembership clusterMembership,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.scheduling.irrigation.execution-chunk-size:500}") int chunkSize,
+                              @Value("${app.scheduling.irrigation.lease-duration:600000}") long leaseMillis) {
         this.programmeRepo = programmeRepo;
-        this.journalRepo = journalRepo;
+        this.dispatcher = dispatcher;
+        this.clusterMembership = clusterMembership;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.leaseMillis = leaseMillis;
     }
 
     /**
@@ -39,39 +57,56 @@ public class IrrigationExecutor {
      * Runs every 5 minutes to check for schedules that need to be executed
      * 
      * Process:
-     * 1. Find all PLANIFIE programmes where datePlanifiee <= now
-     * 2. Simulate execution (in production, this would trigger real irrigation hardware)
-     * 3. Create JournalArrosage entry with execution details
-     * 4. Update programme status to EXECUTED
+     * 1. Plan again the EN_COURS programmes whose lease expired (their instance died mid-execution)
+     * 2. Load due pending programmes (PLANIFIE, AJUSTE or REPLANIFIE with datePlanifiee <= now) in bounded keyset chunks, locked with
+     *    SKIP LOCKED so that replicas running the same tick never load the same rows
+     * 3. Claim those the dispatcher can take (global and per-parcel limits) by marking them EN_COURS
+     *    with this instance as lease owner
+     * 4. After the claim commits, hand them to the {@link ActuationDispatcher}, which actuates them on
+     *    its worker pool and writes each journal entry, water balance and status in its own transaction
+     * 
+     * Each chunk is claimed in its own short transaction and the scheduler thread never waits on the
+     * hardware. Programmes that could not be claimed keep their status and are picked up by a later tick.
+     * The claim is a versioned write, so it fails rather than overwrite a concurrent edit or adjustment.
      */
     @Scheduled(cron = "0 */5 * * * *") // Every 5 minutes
-    @Transactional
     public void executeScheduledIrrigations() {
         log.info("=== Checking for irrigation schedules ready to execute ===");
 
         try {
             LocalDateTime now = LocalDateTime.now();
+            Integer released = transactionTemplate.execute(status -> programmeRepo.releaseExpiredLeases(now));
+            if (released != null && released > 0) {
+                log.warn("{} irrigation schedule(s) with an expired lease planned again", released);
+            }
 
-            // Find all schedules that are planned and their time has arrived
-            List<ProgrammeArrosage> readyToExecute = programmeRepo
-                .findAll()
-                .stream()
-                .filter(p -> "PLANIFIE".equals(p.getStatut()))
-                .filter(p -> p.getDatePlanifiee() != null && !p.getDatePlanifiee().isAfter(now))
-                .toList();
+            long lastId = 0L;
+            int due = 0;
+            int dispatched = 0;
+
+            while (true) {
+                ChunkResult chunk = claimChunk(now, lastId);
+                if (chunk == null || chunk.size() == 0) {
+                    break;
+                }
+                for (ActuationCommand command : chunk.claimed()) {
+                    dispatcher.dispatch(command, now);
+                }
+                due += chunk.size();
+                dispatched += chunk.claimed().size();
+                lastId = chunk.lastId();
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
 
-            if (readyToExecute.isEmpty()) {
+            if (due == 0) {
                 log.debug("No irrigation schedules ready for execution at {}", now);
                 return;
             }
 
-            log.info("Found {} irrigation schedule(s) ready to execute", readyToExecute.size());
-
-            for (ProgrammeArrosage programme : readyToExecute) {
-                executeIrrigation(programme, now);
-            }
-
-            log.info("=== Irrigation execution completed ===");
+            log.info("=== Irrigation dispatch completed: {} schedule(s) due, {} dispatched, {} deferred ===",
+                due, dispatched, due - dispatched);
 
         } catch (Exception e) {
             log.error("Error during automatic irrigation execution: ", e);
@@ -79,79 +114,43 @@ public class IrrigationExecutor {
     }
 
     /**
-     * Execute a single irrigation schedule and create execution log
+     * Load the next chunk of due programmes after {@code afterId} and claim those the dispatcher
+     * accepts, in a dedicated transaction. Reservations are released if the claim does not commit.
      */
-    @Transactional
-    private void executeIrrigation(ProgrammeArrosage programme, LocalDateTime executionTime) {
-        String remark;
-        String newStatus;
-        double actualVolume;
-        
+    private ChunkResult claimChunk(LocalDateTime now, long afterId) {
+        List<ActuationCommand> claimed = new ArrayList<>();
         try {
-            log.info("Executing irrigation for programme ID {} (Parcelle {}, planned volume {} L)",
-                programme.getId(), programme.getParcelleId(), programme.getVolumePrevu());
-
-            // In production, this would trigger actual irrigation hardware
-            // For now, we simulate execution with 90% success rate
-            
-            boolean executionSuccess = Math.random() > 0.1; // 90% success rate
-            
-            if (executionSuccess) {
-                // Successful execution
-                // Calculate actual volume (in production, this would come from sensors)
-                // For simulation, add slight variation (±5%) to planned volume
-                double variation = 0.95 + (Math.random() * 0.1); // 0.95 to 1.05
-                actualVolume = programme.getVolumePrevu() * variation;
-                
-                remark = "Executed successfully - Irrigation completed as planned";
-                newStatus = "EXECUTED";
-                
-                log.info("Programme {} executed successfully with {} L", programme.getId(), actualVolume);
-            } else {
-                // Simulated failure (hardware issue, sensor error, etc.)
-                actualVolume = 0.0;
-                remark = "Execution failed - Hardware malfunction or system error";
-                newStatus = "FAILED";
-                
-                log.warn("Programme {} execution failed", programme.getId());
-            }
-
-            // Create execution log
-            JournalArrosage journal = JournalArrosage.builder()
-                .programme(programme)
-                .dateExecution(executionTime)
-                .volumeReel(actualVolume)
-                .remarque(remark)
-                .build();
-
-            journalRepo.save(journal);
-            log.info("Created execution log ID {} for programme {} with status {}", 
-                journal.getId(), programme.getId(), newStatus);
-
-            // Update programme status
-            programme.setStatut(newStatus);
-            programmeRepo.save(programme);
-            log.info("Updated programme {} status to {}", programme.getId(), newStatus);
-
-        } catch (Exception e) {
-            log.error("Critical error executing irrigation for programme {}: ", programme.getId(), e);
-            
-            // Create failure log even if exception occurred
-            try {
-                JournalArrosage failureJournal = JournalArrosage.builder()
-                    .programme(programme)
-                    .dateExecution(executionTime)
-                    .volumeReel(0.0)
-                    .remarque("Execution failed - System exception: " + e.getMessage())
-                    .build();
-                
-                journalRepo.save(failureJournal);
-                
-                programme.setStatut("FAILED");
-                programmeRepo.save(programme);
-            } catch (Exception logError) {
-                log.error("Failed to create failure log: ", logError);
-            }
+            return transactionTemplate.execute(status -> {
+                List<ProgrammeArrosage> readyToExecute = programmeRepo
+                    .findDueProgrammes(ProgrammeStatut.EXECUTABLE, now, afterId, PageRequest.of(0, chunkSize));
+
+                if (readyToExecute.isEmpty()) {
+                    return new ChunkResult(0, afterId, claimed);
+                }
+
+                log.info("Found {} irrigation schedule(s) ready to execute", readyToExecute.size());
+
+                for (ProgrammeArrosage programme : readyToExecute) {
+                    if (!dispatcher.tryReserve(programme.getParcelleId())) {
+                        log.debug("Programme {} deferred: actuation capacity reached for parcelle {}",
+                            programme.getId(), programme.getParcelleId());
+                        continue;
+                    }
+                    claimed.add(new ActuationCommand(programme.getId(), programme.getParcelleId(),
+                        programme.getVolumePrevu() != null ? programme.getVolumePrevu() : 0.0, programme.getDuree()));
+                    programme.setStatut(ProgrammeStatut.EN_COURS);
+                    programme.setLeaseOwner(clusterMembership.getInstanceId());
+                    programme.setLeaseExpiry(now.plusNanos(leaseMillis * 1_000_000L));
+                }
+                programmeRepo.saveAll(readyToExecute);
+                return new ChunkResult(readyToExecute.size(),
+                    readyToExecute.get(readyToExecute.size() - 1).getId(), claimed);
+            });
+        } catch (RuntimeException e) {
+            claimed.forEach(command -> dispatcher.release(command.parcelleId()));
+            throw e;
         }
     }
+
+    private record ChunkResult(int size, long lastId, List<ActuationCommand> claimed) { }
 }
@@ -1,21 +1,33 @@
 package com.example.msarrosage.scheduling;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.example.msarrosage.clients.MeteoClient;
+import com.example.msarrosage.clients.MeteoForecastCache;
+import com.example.msarrosage.cluster.ClusterMembership;
 import com.example.msarrosage.dto.PrevisionResponse;
 import com.example.msarrosage.entities.ProgrammeArrosage;
 import com.example.msarrosage.repositories.ProgrammeArrosageRepository;
 import com.example.msarrosage.services.IArrosageService;
+import com.example.msarrosage.services.ParcelleStationRegistry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
 
 @Component
 @ConditionalOnProperty(name = "spring.scheduling.enabled", havingValue = "true", matchIfMissing = true)
@@ -25,38 +37,72 @@ public class IrrigationScheduleAdjuster {
 
     private final IArrosageService arrosageService;
     private final ProgrammeArrosageRepository programmeRepo;
-    private final MeteoClient meteoClient;
+    private final MeteoForecastCache forecastCache;
+    private final ParcelleStationRegistry parcelleStationRegistry;
+    private final ClusterMembership clusterMembership;
+    private final Long defaultStationId;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile SweepReport lastReport;
 
     public IrrigationScheduleAdjuster(IArrosageService arrosageService,
                                       ProgrammeArrosageRepository programmeRepo,
-                                      MeteoClient meteoClient) {
+                                      MeteoForecastCache forecastCache,
+                                      ParcelleStationRegistry parcelleStationRegistry,
+                                      ClusterMembership clusterMembership,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.weather.default-station-id:1}") Long defaultStationId) {
         this.arrosageService = arrosageService;
         this.programmeRepo = programmeRepo;
-        this.meteoClient = meteoClient;
+        this.forecastCache = forecastCache;
+        this.parcelleStationRegistry = parcelleStationRegistry;
+        this.clusterMembership = clusterMembership;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultStationId = defaultStationId;
+
+        reportGauge(meterRegistry, "arrosage.adjustment.sweep.programmes", "Programmes evaluated by the last sweep",
+            SweepReport::programmes);
+        reportGauge(meterRegistry, "arrosage.adjustment.sweep.stations", "Stations evaluated by the last sweep",
+            SweepReport::stations);
+        reportGauge(meterRegistry, "arrosage.adjustment.sweep.failed.stations",
+            "Stations whose adjustment failed in the last sweep", SweepReport::failedStations);
+        reportGauge(meterRegistry, "arrosage.adjustment.sweep.changed", "Programmes changed by the last sweep",
+            SweepReport::programmesChanged);
+        TimeGauge.builder("arrosage.adjustment.sweep.duration", this, TimeUnit.MILLISECONDS,
+                adjuster -> adjuster.lastReport != null ? adjuster.lastReport.totalMillis() : 0)
+            .description("Total duration of the last sweep")
+            .register(meterRegistry);
     }
 
     /**
      * Automatically adjust irrigation schedules based on weather forecasts
      * Runs every 4 hours (14400000 ms)
      * 
-     * Process:
-     * 1. Find all PENDING programmes for the next 7 days
-     * 2. Fetch latest weather forecasts for each station
-     * 3. Auto-adjust volumes and postpone if necessary
-     * 4. Log all adjustments for audit trail
+     * Process (single sweep):
+     * 1. Load all PENDING programmes for the next 7 days once, keeping the parcels owned by this
+     *    instance when several replicas run
+     * 2. Group them by the weather station serving their parcel
+     *    (parcels without a station use app.weather.default-station-id)
+     * 3. Fetch the forecasts of each station once and apply the adjustment rules
+     *    to the station's programmes, in one transaction per station: a failing station is rolled
+     *    back alone and the row locks taken on write conflicts are only held for its programmes
+     * 4. Log a run report with counts, timings and changed rows, also published as gauges
      */
     @Scheduled(fixedDelay = 14400000, initialDelay = 120000)
-    @Transactional
     public void autoAdjustSchedules() {
         log.info("=== Starting automatic irrigation schedule adjustment ===");
 
         try {
+            long start = System.nanoTime();
+
             // Get upcoming programmes for next 7 days
             LocalDateTime now = LocalDateTime.now();
             LocalDateTime sevenDaysLater = now.plusDays(7);
 
-            List<ProgrammeArrosage> upcomingProgrammes = programmeRepo
-                .findUpcomingProgrammesByDateRange(now, sevenDaysLater);
+            List<ProgrammeArrosage> upcomingProgrammes = clusterMembership.ownedProgrammes(programmeRepo
+                .findUpcomingProgrammesByDateRange(now, sevenDaysLater));
+            long loaded = System.nanoTime();
 
             log.info("Found {} upcoming irrigation schedules to evaluate", upcomingProgrammes.size());
 
@@ -65,12 +111,45 @@ public class IrrigationScheduleAdjuster {
                 return;
             }
 
-            // Group programmes by station/date and adjust based on weather
-            for (ProgrammeArrosage programme : upcomingProgrammes) {
-                adjustScheduleBasedOnWeather(programme);
+            Map<Long, List<ProgrammeArrosage>> programmesByStation = groupByStation(upcomingProgrammes);
+
+            long fetchNanos = 0;
+            long adjustNanos = 0;
+            int changed = 0;
+            int failedStations = 0;
+            for (Map.Entry<Long, List<ProgrammeArrosage>> entry : programmesByStation.entrySet()) {
+                Long stationId = entry.getKey();
+                try {
+                    long fetchStart = System.nanoTime();
+                    List<PrevisionResponse> forecasts = forecastCache.getPrevisions(stationId);
+                    long fetchEnd = System.nanoTime();
+                    fetchNanos += fetchEnd - fetchStart;
+
+                    if (forecasts == null || forecasts.isEmpty()) {
+                        log.debug("No forecasts available for station {}", stationId);
+                        continue;
+                    }
+
+                    Integer stationChanged = transactionTemplate.execute(
+                        status -> arrosageService.adjustProgrammes(entry.getValue(), forecasts));
+                    changed += stationChanged != null ? stationChanged : 0;
+                    adjustNanos += System.nanoTime() - fetchEnd;
+                } catch (Exception e) {
+                    failedStations++;
+                    log.error("Error adjusting schedules of station {}: ", stationId, e);
+                }
             }
 
-            log.info("=== Automatic schedule adjustment completed ===");
+            lastReport = new SweepReport(
+                upcomingProgrammes.size(),
+                programmesByStation.size(),
+                failedStations,
+                changed,
+                (loaded - start) / 1_000_000,
+                fetchNanos / 1_000_000,
+                adjustNanos / 1_000_000,
+                (System.nanoTime() - start) / 1_000_000);
+            log.info("=== Automatic schedule adjustment completed: {} ===", lastReport);
 
         } catch (Exception e) {
             log.error("Error during automatic schedule adjustment: ", e);
@@ -78,62 +157,35 @@ public class IrrigationScheduleAdjuster {
     }
 
     /**
-     * Adjust a single irrigation schedule based on latest weather forecast
-     * 
-     * Decision Logic:
-     * - RAIN (> 5mm): Reduce water volume
-     * - HEAVY RAIN (> 15mm): Cancel/Postpone irrigation
-     * - HIGH TEMP (> 30°C): Increase water volume
-     * - STRONG WIND (> 30 km/h): Cancel/Postpone irrigation (evaporation risk)
+     * Gauge on a field of the last completed sweep report, 0 until a sweep ran.
      */
-    @Transactional
-    private void adjustScheduleBasedOnWeather(ProgrammeArrosage programme) {
-        log.info("Evaluating schedule ID {} for date {}", programme.getId(), programme.getDatePlanifiee());
-
-        try {
-            // Fetch forecasts - Note: In real implementation, this calls Meteo Service
-            // via MeteoClient to get weather for that specific location
-            List<PrevisionResponse> forecasts = meteoClient.getPrevisions(1L); // Default to station 1
-            
-            if (forecasts == null || forecasts.isEmpty()) {
-                log.debug("No forecasts available for adjustment");
-                return;
-            }
-
-            // Find forecast for the programme date
-            LocalDate programmeDate = programme.getDatePlanifiee().toLocalDate();
-            PrevisionResponse relevantForecast = forecasts.stream()
-                .filter(f -> f.date().equals(programmeDate))
-                .findFirst()
-                .orElse(null);
-
-            if (relevantForecast == null) {
-                log.debug("No forecast found for date: {}", programmeDate);
-                return;
-            }
-
-            // Trigger the existing adjustment logic via handleWeatherEvent
-            // This maintains consistency with manual weather event processing
-            arrosageService.handleWeatherEvent(convertForecastToPayload(relevantForecast));
+    private void reportGauge(MeterRegistry meterRegistry, String name, String description,
+                             ToDoubleFunction<SweepReport> field) {
+        Gauge.builder(name, this, adjuster -> adjuster.lastReport != null ? field.applyAsDouble(adjuster.lastReport) : 0)
+            .description(description)
+            .register(meterRegistry);
+    }
 
-        } catch (Exception e) {
-            log.error("Error adjusting schedule ID {}: ", programme.getId(), e);
+    private Map<Long, List<ProgrammeArrosage>> groupByStation(List<ProgrammeArrosage> programmes) {
+        Map<Long, List<ProgrammeArrosage>> programmesByStation = new LinkedHashMap<>();
+        for (ProgrammeArrosage programme : programmes) {
+            Long stationId = parcelleStationRegistry.getStationForParcelle(programme.getParcelleId());
+            programmesByStation
+                .computeIfAbsent(stationId != null ? stationId : defaultStationId, id -> new ArrayList<>())
+                .add(programme);
         }
+        return programmesByStation;
     }
 
     /**
-     * Convert PrevisionResponse to a Map payload that matches the RabbitMQ event format
-     * This allows reusing the existing weather event handling logic
+     * Outcome of one adjustment sweep; durations are in milliseconds.
      */
-    private java.util.Map<String, Object> convertForecastToPayload(PrevisionResponse forecast) {
-        java.util.Map<String, Object> payload = new java.util.HashMap<>();
-        payload.put("previsionId", forecast.previsionId());
-        payload.put("stationId", forecast.stationId());
-        payload.put("date", forecast.date());
-        payload.put("temperatureMax", forecast.temperatureMax());
-        payload.put("temperatureMin", forecast.temperatureMin());
-        payload.put("pluiePrevue", forecast.pluiePrevue());
-        payload.put("vent", forecast.vent());
-        return payload;
-    }
+    private record SweepReport(int programmes,
+                              int stations,
+                              int failedStations,
+                              int programmesChanged,
+                              long loadMillis,
+                              long fetchMillis,
+                              long adjustMillis,
+                              long totalMillis) { }
 }
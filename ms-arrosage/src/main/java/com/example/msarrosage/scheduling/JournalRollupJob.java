@@ -0,0 +1,184 @@
+package com.example.msarrosage.scheduling;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.msarrosage.dto.JournalAggregate;
+import com.example.msarrosage.entities.JournalRollup;
+import com.example.msarrosage.repositories.JournalArrosageRepository;
+import com.example.msarrosage.repositories.JournalRollupRepository;
+
+/**
+ * Maintains the daily and weekly per-parcel journal rollups and applies the journal retention policy.
+ *
+ * Each run recomputes the days from the last rolled-up day minus {@code lookback-days} up to today
+ * (everything on the first run), then the weeks containing those days from the daily rollups.
+ * Raw journal rows older than {@code retention-days} are then purged in batches, but never rows of
+ * days that a later run could still recompute.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class JournalRollupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalRollupJob.class);
+
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final JournalArrosageRepository journalRepo;
+    private final JournalRollupRepository rollupRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final int lookbackDays;
+    private final int retentionDays;
+
+    public JournalRollupJob(JournalArrosageRepository journalRepo,
+                            JournalRollupRepository rollupRepo,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.journal.rollup.lookback-days:2}") int lookbackDays,
+                            @Value("${app.journal.retention-days:0}") int retentionDays) {
+        this.journalRepo = journalRepo;
+        this.rollupRepo = rollupRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lookbackDays = Math.max(0, lookbackDays);
+        this.retentionDays = Math.max(0, retentionDays);
+    }
+
+    @Scheduled(cron = "${app.journal.rollup.cron:0 15 * * * *}")
+    public void run() {
+        try {
+            long start = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+            int days = rollUp(today);
+            long purged = purge(today);
+            log.info("Agrégation du journal terminée: {} jour(s) recalculé(s), {} entrée(s) purgée(s), Durée: {} ms",
+                days, purged, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'agrégation du journal: ", e);
+        }
+    }
+
+    /**
+     * @return the number of days recomputed
+     */
+    int rollUp(LocalDate today) {
+        LocalDate firstDay = rollupRepo.findLastPeriodeDebut(JournalRollup.JOUR)
+            .map(last -> last.minusDays(lookbackDays))
+            .or(() -> journalRepo.findFirstDateExecution().map(LocalDateTime::toLocalDate))
+            .orElse(null);
+        if (firstDay == null || firstDay.isAfter(today)) {
+            return 0;
+        }
+
+        int days = 0;
+        for (LocalDate day = firstDay; !day.isAfter(today); day = day.plusDays(1)) {
+            LocalDate current = day;
+            transactionTemplate.executeWithoutResult(status -> replacePeriod(JournalRollup.JOUR, current,
+                journalRepo.aggregateByParcelle(current.atStartOfDay(), current.plusDays(1).atStartOfDay())));
+            days++;
+        }
+
+        LocalDate firstWeek = firstDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        for (LocalDate week = firstWeek; !week.isAfter(today); week = week.plusWeeks(1)) {
+            LocalDate current = week;
+            transactionTemplate.executeWithoutResult(status -> replacePeriod(JournalRollup.SEMAINE, current,
+                rollupRepo.sumDailyRollups(current, current.plusDays(6))));
+        }
+        return days;
+    }
+
+    /**
+     * Replaces the rollups of one period: existing rows are updated in place, new parcels inserted
+     * and parcels without executions anymore removed.
+     */
+    private void replacePeriod(String granularite, LocalDate periodeDebut, List<JournalAggregate> aggregates) {
+        Map<Long, JournalRollup> existing = new HashMap<>();
+        for (JournalRollup rollup : rollupRepo.findByGranulariteAndPeriodeDebut(granularite, periodeDebut)) {
+            existing.put(rollup.getParcelleId(), rollup);
+        }
+
+        List<JournalRollup> toSave = new ArrayList<>(aggregates.size());
+        for (JournalAggregate aggregate : aggregates) {
+            if (aggregate.parcelleId() == null) {
+                continue;
+            }
+            JournalRollup rollup = existing.remove(aggregate.parcelleId());
+            if (rollup == null) {
+                rollup = JournalRollup.builder()
+                    .granularite(granularite)
+                    .periodeDebut(periodeDebut)
+                    .parcelleId(aggregate.parcelleId())
+                    .build();
+            }
+            long executions = valueOf(aggregate.executions());
+            long succes = valueOf(aggregate.succes());
+            rollup.setExecutions(executions);
+            rollup.setSucces(succes);
+            rollup.setEchecs(executions - succes);
+            rollup.setVolumeReelTotal(valueOf(aggregate.volumeReelTotal()));
+            rollup.setVolumePrevuTotal(valueOf(aggregate.volumePrevuTotal()));
+            rollup.setEcartAbsoluTotal(valueOf(aggregate.ecartAbsoluTotal()));
+            toSave.add(rollup);
+        }
+        rollupRepo.saveAll(toSave);
+        if (!existing.isEmpty()) {
+            rollupRepo.deleteAllInBatch(existing.values());
+        }
+    }
+
+    /**
+     * Deletes journal rows past the retention period, in batches of {@value #PURGE_BATCH_SIZE}.
+     * @return the number of rows deleted
+     */
+    long purge(LocalDate today) {
+        if (retentionDays == 0) {
+            return 0;
+        }
+        LocalDate rolledUpUntil = rollupRepo.findLastPeriodeDebut(JournalRollup.JOUR)
+            .map(last -> last.minusDays(lookbackDays))
+            .orElse(null);
+        if (rolledUpUntil == null) {
+            return 0;
+        }
+        LocalDate cutoff = today.minusDays(retentionDays);
+        LocalDateTime before = (cutoff.isBefore(rolledUpUntil) ? cutoff : rolledUpUntil).atStartOfDay();
+
+        long purged = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = journalRepo.findIdsExecutedBefore(before, PageRequest.ofSize(PURGE_BATCH_SIZE));
+                journalRepo.deleteAllByIdInBatch(ids);
+                return ids.size();
+            });
+            if (deleted == null || deleted == 0) {
+                return purged;
+            }
+            purged += deleted;
+            if (deleted < PURGE_BATCH_SIZE) {
+                return purged;
+            }
+        }
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.msarrosage.services;
+
+import java.util.Arrays;
+
+import com.example.msarrosage.config.AdjustmentRulesProperties;
+import com.example.msarrosage.config.AdjustmentRulesProperties.Ladder;
+
+/**
+ * Immutable, compiled form of {@link AdjustmentRulesProperties}.
+ * Evaluation only works on primitive doubles: a missing forecast value is passed as {@link Double#NaN},
+ * which never crosses a threshold and therefore maps to the neutral (first) multiplier.
+ */
+public final class AdjustmentRuleTable {
+
+    private final double[] rainThresholds;
+    private final double[] rainMultipliers;
+    private final double rainPostponeAbove;
+    private final double[] windThresholds;
+    private final double[] windMultipliers;
+    private final double windPostponeAbove;
+    private final double[] temperatureThresholds;
+    private final double[] temperatureMultipliers;
+    private final double temperaturePostponeAbove;
+
+    private final double minVolumeRatio;
+    private final double maxVolumeRatio;
+    private final double changeTolerance;
+    private final int postponeDays;
+
+    private AdjustmentRuleTable(AdjustmentRulesProperties properties) {
+        Ladder rain = validate("rain", properties.getRain());
+        Ladder wind = validate("wind", properties.getWind());
+        Ladder temperature = validate("temperature", properties.getTemperature());
+
+        this.rainThresholds = rain.getThresholds().clone();
+        this.rainMultipliers = rain.getMultipliers().clone();
+        this.rainPostponeAbove = postponeBound(rain);
+        this.windThresholds = wind.getThresholds().clone();
+        this.windMultipliers = wind.getMultipliers().clone();
+        this.windPostponeAbove = postponeBound(wind);
+        this.temperatureThresholds = temperature.getThresholds().clone();
+        this.temperatureMultipliers = temperature.getMultipliers().clone();
+        this.temperaturePostponeAbove = postponeBound(temperature);
+
+        if (!(properties.getMinVolumeRatio() > 0) || properties.getMaxVolumeRatio() < properties.getMinVolumeRatio()) {
+            throw new IllegalArgumentException("Bornes de volume invalides : "
+                + properties.getMinVolumeRatio() + " - " + properties.getMaxVolumeRatio());
+        }
+        if (properties.getChangeTolerance() < 0 || properties.getPostponeDays() < 1) {
+            throw new IllegalArgumentException("Tolérance ou report invalide : "
+                + properties.getChangeTolerance() + " / " + properties.getPostponeDays());
+        }
+        this.minVolumeRatio = properties.getMinVolumeRatio();
+        this.maxVolumeRatio = properties.getMaxVolumeRatio();
+        this.changeTolerance = properties.getChangeTolerance();
+        this.postponeDays = properties.getPostponeDays();
+    }
+
+    /**
+     * @throws IllegalArgumentException if a ladder is empty, unordered or has a non-positive multiplier
+     */
+    public static AdjustmentRuleTable compile(AdjustmentRulesProperties properties) {
+        return new AdjustmentRuleTable(properties);
+    }
+
+    public double rainMultiplier(double rain) {
+        return lookup(rainThresholds, rainMultipliers, rain);
+    }
+
+    public double windMultiplier(double wind) {
+        return lookup(windThresholds, windMultipliers, wind);
+    }
+
+    public double temperatureMultiplier(double temperature) {
+        return lookup(temperatureThresholds, temperatureMultipliers, temperature);
+    }
+
+    public boolean shouldPostpone(double rain, double wind, double temperature) {
+        return rain > rainPostponeAbove || wind > windPostponeAbove || temperature > temperaturePostponeAbove;
+    }
+
+    /**
+     * @return the volume multiplier, or 1 when the combined adjustment stays within the change tolerance
+     */
+    public double volumeMultiplier(double rainMultiplier, double windMultiplier, double temperatureMultiplier) {
+        double multiplier = rainMultiplier * windMultiplier * temperatureMultiplier;
+        if (Math.abs(multiplier - 1.0) <= changeTolerance) {
+            return 1.0;
+        }
+        return Math.max(minVolumeRatio, Math.min(multiplier, maxVolumeRatio));
+    }
+
+    public int getPostponeDays() {
+        return postponeDays;
+    }
+
+    private static double lookup(double[] thresholds, double[] multipliers, double value) {
+        int i = 0;
+        while (i < thresholds.length && value > thresholds[i]) {
+            i++;
+        }
+        return multipliers[i];
+    }
+
+    private static double postponeBound(Ladder ladder) {
+        return ladder.getPostponeAbove() != null ? ladder.getPostponeAbove() : Double.POSITIVE_INFINITY;
+    }
+
+    private static Ladder validate(String name, Ladder ladder) {
+        if (ladder == null || ladder.getThresholds() == null || ladder.getMultipliers() == null) {
+            throw new IllegalArgumentException("Règle d'ajustement incomplète : " + name);
+        }
+        double[] thresholds = ladder.getThresholds();
+        double[] multipliers = ladder.getMultipliers();
+        if (multipliers.length != thresholds.length + 1) {
+            throw new IllegalArgumentException("Règle " + name + " : " + multipliers.length
+                + " multiplicateurs pour " + thresholds.length + " seuils");
+        }
+        for (int i = 0; i < thresholds.length; i++) {
+            if (Double.isNaN(thresholds[i]) || (i > 0 && thresholds[i] <= thresholds[i - 1])) {
+                throw new IllegalArgumentException("Règle " + name + " : seuils non croissants " + Arrays.toString(thresholds));
+            }
+        }
+        for (double multiplier : multipliers) {
+            if (!(multiplier > 0) || Double.isInfinite(multiplier)) {
+                throw new IllegalArgumentException("Règle " + name + " : multiplicateur invalide " + multiplier);
+            }
+        }
+        return ladder;
+    }
+
+    @Override
+    public String toString() {
+        return "pluie " + Arrays.toString(rainThresholds) + " -> " + Arrays.toString(rainMultipliers)
+            + ", vent " + Arrays.toString(windThresholds) + " -> " + Arrays.toString(windMultipliers)
+            + ", température " + Arrays.toString(temperatureThresholds) + " -> " + Arrays.toString(temperatureMultipliers);
+    }
+}
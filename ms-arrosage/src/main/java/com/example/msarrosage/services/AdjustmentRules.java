@@ -0,0 +1,60 @@
+package com.example.msarrosage.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.example.msarrosage.config.AdjustmentRulesProperties;
+
+/**
+ * Holds the active {@link AdjustmentRuleTable}.
+ * The table is compiled from {@code app.adjustment} at startup and swapped atomically when those
+ * properties change (e.g. after {@code POST /actuator/refresh}). An invalid configuration is
+ * rejected at startup; on refresh it is logged and the previous table is kept.
+ */
+@Component
+public class AdjustmentRules {
+
+    private static final Logger log = LoggerFactory.getLogger(AdjustmentRules.class);
+
+    static final String PREFIX = "app.adjustment";
+
+    private final Environment environment;
+
+    private volatile AdjustmentRuleTable table;
+
+    public AdjustmentRules(Environment environment) {
+        this.environment = environment;
+        this.table = compile();
+        log.info("Règles d'ajustement météo chargées : {}", table);
+    }
+
+    public AdjustmentRuleTable current() {
+        return table;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(PREFIX))) {
+            return;
+        }
+        try {
+            table = compile();
+            log.info("Règles d'ajustement météo rechargées : {}", table);
+        } catch (RuntimeException e) {
+            log.error("Configuration des règles d'ajustement invalide, règles précédentes conservées", e);
+        }
+    }
+
+    private AdjustmentRuleTable compile() {
+        AdjustmentRulesProperties properties = Binder.get(environment)
+            .bind(PREFIX, Bindable.ofInstance(new AdjustmentRulesProperties()))
+            .orElseGet(AdjustmentRulesProperties::new);
+        return AdjustmentRuleTable.compile(properties);
+    }
+}
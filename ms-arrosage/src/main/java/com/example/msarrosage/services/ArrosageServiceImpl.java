@@ -2,22 +2,45 @@ package com.example.msarrosage.services;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.msarrosage.clients.MeteoClient;
+import com.example.msarrosage.clients.MeteoForecastCache;
+import com.example.msarrosage.cluster.ClusterMembership;
+import com.example.msarrosage.dto.BilanResponse;
+import com.example.msarrosage.dto.CursorPage;
+import com.example.msarrosage.dto.JournalFilter;
 import com.example.msarrosage.dto.JournalRequest;
+import com.example.msarrosage.dto.JournalResponse;
+import com.example.msarrosage.dto.ParcelleStationRequest;
 import com.example.msarrosage.dto.PrevisionResponse;
+import com.example.msarrosage.dto.ProgrammeFilter;
 import com.example.msarrosage.dto.ProgrammeRequest;
+import com.example.msarrosage.dto.ProgrammeResponse;
+import com.example.msarrosage.dto.ProgrammeVersion;
+import com.example.msarrosage.dto.ScheduleUpdate;
 import com.example.msarrosage.entities.JournalArrosage;
+import com.example.msarrosage.entities.JournalRollup;
+import com.example.msarrosage.entities.ParcelleStation;
 import com.example.msarrosage.entities.ProgrammeArrosage;
+import com.example.msarrosage.entities.ProgrammeStatut;
+import com.example.msarrosage.messaging.WeatherEventPayloads;
 import com.example.msarrosage.repositories.JournalArrosageRepository;
+import com.example.msarrosage.repositories.JournalRollupRepository;
+import com.example.msarrosage.repositories.ParcelleStationRepository;
 import com.example.msarrosage.repositories.ProgrammeArrosageRepository;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -26,19 +49,43 @@ public class ArrosageServiceImpl implements IArrosageService {
 
     private static final Logger log = LoggerFactory.getLogger(ArrosageServiceImpl.class);
 
+    /** Upper bound of the page size of keyset listings */
+    static final int MAX_PAGE_SIZE = 500;
+
+    /** Attempts of a weather adjustment losing against concurrent writes before giving up */
+    static final int MAX_ADJUSTMENT_ATTEMPTS = 3;
+
     private final ProgrammeArrosageRepository programmeRepo;
     private final JournalArrosageRepository journalRepo;
-    private final MeteoClient meteoClient;
+    private final JournalRollupRepository rollupRepo;
+    private final MeteoForecastCache forecastCache;
+    private final ParcelleStationRepository parcelleStationRepo;
+    private final ParcelleStationRegistry parcelleStationRegistry;
+    private final AdjustmentRules adjustmentRules;
+    private final WaterBalanceStore waterBalanceStore;
+    private final ClusterMembership clusterMembership;
     
     @Value("${app.weather.station-ids:}")
     private String stationIdsConfig;
 
     public ArrosageServiceImpl(ProgrammeArrosageRepository programmeRepo,
                                JournalArrosageRepository journalRepo,
-                               MeteoClient meteoClient) {
+                               JournalRollupRepository rollupRepo,
+                               MeteoForecastCache forecastCache,
+                               ParcelleStationRepository parcelleStationRepo,
+                               ParcelleStationRegistry parcelleStationRegistry,
+                               AdjustmentRules adjustmentRules,
+                               WaterBalanceStore waterBalanceStore,
+                               ClusterMembership clusterMembership) {
         this.programmeRepo = programmeRepo;
         this.journalRepo = journalRepo;
-        this.meteoClient = meteoClient;
+        this.rollupRepo = rollupRepo;
+        this.forecastCache = forecastCache;
+        this.parcelleStationRepo = parcelleStationRepo;
+        this.parcelleStationRegistry = parcelleStationRegistry;
+        this.adjustmentRules = adjustmentRules;
+        this.waterBalanceStore = waterBalanceStore;
+        this.clusterMembership = clusterMembership;
     }
 
     @Override
@@ -56,8 +103,65 @@ public class ArrosageServiceImpl implements IArrosageService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<JournalArrosage> getJournal() {
-        return journalRepo.findAll();
+    public CursorPage<ProgrammeResponse> findProgrammes(ProgrammeFilter filter, Long after, int size) {
+        List<ProgrammeResponse> items = programmeRepo.findProgrammePage(filter.parcelleId(), filter.statut(),
+            filter.from(), filter.to(), after != null ? after : 0L, PageRequest.ofSize(pageSize(size)));
+        return new CursorPage<>(items, items.size() < pageSize(size) ? null : items.get(items.size() - 1).id());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProgrammes(ProgrammeFilter filter, Consumer<ProgrammeResponse> consumer) {
+        try (Stream<ProgrammeResponse> rows = programmeRepo.streamProgrammes(filter.parcelleId(), filter.statut(),
+                filter.from(), filter.to())) {
+            rows.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<JournalResponse> getJournal() {
+        return journalRepo.findAllResponses();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<JournalResponse> findJournal(JournalFilter filter, Long after, int size) {
+        List<JournalResponse> items = journalRepo.findJournalPage(filter.programmeId(), filter.parcelleId(),
+            filter.from(), filter.to(), after != null ? after : 0L, PageRequest.ofSize(pageSize(size)));
+        return new CursorPage<>(items, items.size() < pageSize(size) ? null : items.get(items.size() - 1).id());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportJournal(JournalFilter filter, Consumer<JournalResponse> consumer) {
+        try (Stream<JournalResponse> rows = journalRepo.streamJournal(filter.programmeId(), filter.parcelleId(),
+                filter.from(), filter.to())) {
+            rows.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<JournalRollup> getJournalRollups(String granularite, Long parcelleId, LocalDate from, LocalDate to) {
+        if (!JournalRollup.JOUR.equals(granularite) && !JournalRollup.SEMAINE.equals(granularite)) {
+            throw new IllegalArgumentException("Granularité inconnue : " + granularite);
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(30);
+        return rollupRepo.findRollups(granularite, parcelleId, start, end);
+    }
+
+    @Override
+    public BilanResponse getBilan(Long parcelleId) {
+        return waterBalanceStore.getBilan(parcelleId);
+    }
+
+    private static int pageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Taille de page invalide : " + size);
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
     }
 
     @Override
@@ -79,12 +183,22 @@ public class ArrosageServiceImpl implements IArrosageService {
         ProgrammeArrosage programme = programmeRepo.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Programme introuvable : " + id));
         
+        // Running and finished programmes belong to the executor; edits keep the programme pending
+        String current = programme.getStatut() != null ? programme.getStatut() : ProgrammeStatut.PLANIFIE;
+        if (!ProgrammeStatut.PENDING.contains(current)) {
+            throw new IllegalArgumentException("Programme non modifiable au statut " + current + " : " + id);
+        }
+        if (request.statut() != null && !ProgrammeStatut.PENDING.contains(request.statut())) {
+            throw new IllegalArgumentException("Transition de statut interdite : " + current + " -> " + request.statut());
+        }
+        
         programme.setParcelleId(request.parcelleId());
         programme.setDatePlanifiee(request.datePlanifiee());
         programme.setDuree(request.duree());
         programme.setVolumePrevu(request.volumePrevu());
-        programme.setStatut(request.statut());
+        programme.setStatut(request.statut() != null ? request.statut() : current);
         
+        // Versioned write: fails with an optimistic locking error if the programme changed meanwhile
         return programmeRepo.save(programme);
     }
 
@@ -106,278 +220,334 @@ public class ArrosageServiceImpl implements IArrosageService {
             .volumeReel(request.volumeReel())
             .remarque(request.remarque())
             .build();
-        return journalRepo.save(journal);
+        JournalArrosage saved = journalRepo.save(journal);
+        waterBalanceStore.recordExecution(programme.getParcelleId(),
+            saved.getDateExecution(), saved.getVolumeReel());
+        return saved;
     }
 
     @Override
     @Transactional
     public void deleteJournalEntry(Long id) {
-        if (!journalRepo.existsById(id)) {
-            throw new IllegalArgumentException("Journal introuvable : " + id);
+        JournalArrosage journal = journalRepo.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Journal introuvable : " + id));
+        if (journal.getProgramme() != null) {
+            waterBalanceStore.recordDeletion(journal.getProgramme().getParcelleId(),
+                journal.getDateExecution(), journal.getVolumeReel());
         }
-        journalRepo.deleteById(id);
+        journalRepo.delete(journal);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ParcelleStation> getParcelleStations() {
+        return parcelleStationRepo.findAll();
+    }
+
+    @Override
+    @Transactional
+    public ParcelleStation assignStation(ParcelleStationRequest request) {
+        if (request.parcelleId() == null || request.stationId() == null) {
+            throw new IllegalArgumentException("Parcelle et station obligatoires");
+        }
+        ParcelleStation mapping = parcelleStationRepo.findByParcelleId(request.parcelleId())
+            .orElseGet(() -> ParcelleStation.builder().parcelleId(request.parcelleId()).build());
+        mapping.setStationId(request.stationId());
+        ParcelleStation saved = parcelleStationRepo.save(mapping);
+        parcelleStationRegistry.refreshAfterCommit();
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public void deleteParcelleStation(Long parcelleId) {
+        ParcelleStation mapping = parcelleStationRepo.findByParcelleId(parcelleId)
+            .orElseThrow(() -> new IllegalArgumentException("Aucune station associée à la parcelle : " + parcelleId));
+        parcelleStationRepo.delete(mapping);
+        parcelleStationRegistry.refreshAfterCommit();
     }
 
     @Override
     @Transactional
     public void handleWeatherEvent(Map<String, Object> payload) {
         log.info("Événement météo reçu pour ajustement: {}", payload);
-        Object stationValue = payload.get("stationId");
-        Long stationId = null;
-        if (stationValue instanceof Number number) {
-            stationId = number.longValue();
-        }
+        Long stationId = WeatherEventPayloads.readLong(payload.get("stationId"));
 
         if (stationId != null) {
-            List<PrevisionResponse> previsions = meteoClient.getPrevisions(stationId);
-            log.debug("Prévisions récupérées: {}", previsions);
-            
-            // Get upcoming programmes for the next 7 days
+            // Restrict the 7-day window to the forecast date carried by the event, if any
             LocalDateTime now = LocalDateTime.now();
-            LocalDateTime sevenDaysLater = now.plusDays(7);
-            List<ProgrammeArrosage> upcomingProgrammes = programmeRepo
-                .findUpcomingProgrammesByDateRange(now, sevenDaysLater);
-            
-            log.info("Nombre de programmes à ajuster: {}", upcomingProgrammes.size());
+            LocalDateTime startDate = now;
+            LocalDateTime endDate = now.plusDays(7);
+            LocalDate eventDate = WeatherEventPayloads.readDate(payload.get("date"));
+            if (eventDate != null) {
+                startDate = eventDate.atStartOfDay().isAfter(now) ? eventDate.atStartOfDay() : now;
+                endDate = eventDate.atTime(LocalTime.MAX).isBefore(endDate) ? eventDate.atTime(LocalTime.MAX) : endDate;
+                if (startDate.isAfter(endDate)) {
+                    log.debug("Date de prévision {} hors de la fenêtre d'ajustement", eventDate);
+                    return;
+                }
+            }
             
-            // Process each upcoming programme based on weather previsions
-            for (ProgrammeArrosage programme : upcomingProgrammes) {
-                adjustProgrammeBasedOnWeather(programme, previsions);
+            // Only the programmes of parcels served by this station are affected
+            List<ProgrammeArrosage> upcomingProgrammes = findUpcomingProgrammesForStation(stationId, startDate, endDate);
+            log.info("Nombre de programmes à ajuster pour la station {}: {}", stationId, upcomingProgrammes.size());
+            if (upcomingProgrammes.isEmpty()) {
+                return;
             }
+            
+            List<PrevisionResponse> previsions = forecastCache.getPrevisions(stationId);
+            log.debug("Prévisions récupérées: {}", previsions);
+            
+            // Process all upcoming programmes in one pass based on weather previsions
+            adjustProgrammesBasedOnWeather(upcomingProgrammes, previsions);
         }
     }
 
-    /**
-     * Adjusts a programme's volume and schedule based on weather forecasts.
-     * Water Adjustment Algorithm:
-     * - If pluiePrevue > threshold (5mm) → reduce volume (30% reduction per 10mm of rain)
-     * - If temperatureMax > 30°C → increase volume (20% base, scales with temperature)
-     * - If vent > 20 km/h → increase volume to compensate for evaporation
-     * - Handles edge cases: null values, invalid data, no programmes
-     * - Postpones only for extreme conditions (heavy rain > 15mm OR strong wind > 30 km/h)
-     */
-    private void adjustProgrammeBasedOnWeather(ProgrammeArrosage programme, List<PrevisionResponse> previsions) {
-        // Edge case: null programme
-        if (programme == null) {
-            log.warn("Tentative d'ajustement d'un programme null");
-            return;
+    @Override
+    @Transactional
+    public int adjustProgrammesForStation(Long stationId, List<PrevisionResponse> previsions) {
+        if (stationId == null || previsions == null || previsions.isEmpty()) {
+            return 0;
         }
         
-        LocalDate programmeDateOnly = programme.getDatePlanifiee().toLocalDate();
-        
-        // Find prevision matching the programme date
-        PrevisionResponse relevantPrevision = previsions.stream()
-            .filter(p -> p.date().equals(programmeDateOnly))
-            .findFirst()
-            .orElse(null);
-        
-        if (relevantPrevision == null) {
-            log.debug("Aucune prévision trouvée pour la date: {}", programmeDateOnly);
-            return;
+        // Only load the programmes planned on the dates covered by the forecasts
+        LocalDate firstDate = null;
+        LocalDate lastDate = null;
+        for (PrevisionResponse prevision : previsions) {
+            if (firstDate == null || prevision.date().isBefore(firstDate)) {
+                firstDate = prevision.date();
+            }
+            if (lastDate == null || prevision.date().isAfter(lastDate)) {
+                lastDate = prevision.date();
+            }
         }
-        
-        // Edge case: null volumePrevu
-        if (programme.getVolumePrevu() == null || programme.getVolumePrevu() <= 0) {
-            log.warn("Volume prévu invalide pour le programme {}: {}", programme.getId(), programme.getVolumePrevu());
-            return;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startDate = firstDate.atStartOfDay().isAfter(now) ? firstDate.atStartOfDay() : now;
+        LocalDateTime endDate = lastDate.atTime(LocalTime.MAX).isBefore(now.plusDays(7)) ? lastDate.atTime(LocalTime.MAX) : now.plusDays(7);
+        if (startDate.isAfter(endDate)) {
+            return 0;
         }
         
-        log.info("Ajustement du programme {} basé sur les prévisions météo", programme.getId());
-        
-        boolean shouldPostpone = false;
-        double volumeAdjustmentMultiplier = 1.0; // Multiplier for volume adjustment
-        StringBuilder adjustmentReason = new StringBuilder();
-        
-        // ===== RAIN ADJUSTMENT (Priority 1: Can trigger postponement) =====
-        double rainAdjustment = calculateRainAdjustment(relevantPrevision);
-        if (rainAdjustment < 1.0) {
-            volumeAdjustmentMultiplier *= rainAdjustment;
-            adjustmentReason.append(String.format("Pluie: %.1f mm (ajustement: %.1f%%). ", 
-                relevantPrevision.pluiePrevue() != null ? relevantPrevision.pluiePrevue() : 0,
-                (rainAdjustment - 1.0) * 100));
-            
-            // Heavy rain threshold - consider postponement
-            if (relevantPrevision.pluiePrevue() != null && relevantPrevision.pluiePrevue() > 15.0) {
-                shouldPostpone = true;
-                log.info("Pluie très importante ({} mm) prévue pour la date: {}. Report de l'irrigation.",
-                    relevantPrevision.pluiePrevue(), programmeDateOnly);
-            }
+        List<ProgrammeArrosage> upcomingProgrammes = findUpcomingProgrammesForStation(stationId, startDate, endDate);
+        log.info("Nombre de programmes à ajuster pour la station {} ({} prévisions): {}",
+            stationId, previsions.size(), upcomingProgrammes.size());
+        return adjustProgrammesBasedOnWeather(upcomingProgrammes, previsions);
+    }
+
+    @Override
+    @Transactional
+    public int adjustProgrammes(List<ProgrammeArrosage> programmes, List<PrevisionResponse> previsions) {
+        return adjustProgrammesBasedOnWeather(programmes, previsions);
+    }
+
+    /**
+     * Loads the upcoming programmes of the parcels served by a station.
+     * As long as no parcel has been associated with a station, every upcoming programme is returned
+     * so that installations without a parcel/station mapping keep their previous behaviour.
+     */
+    private List<ProgrammeArrosage> findUpcomingProgrammesForStation(Long stationId, LocalDateTime startDate, LocalDateTime endDate) {
+        if (parcelleStationRegistry.isEmpty()) {
+            log.debug("Aucune correspondance parcelle/station configurée, ajustement de tous les programmes");
+            return programmeRepo.findUpcomingProgrammesByDateRange(startDate, endDate);
         }
-        
-        // ===== WIND ADJUSTMENT (Priority 2: Can trigger postponement) =====
-        double windAdjustment = calculateWindAdjustment(relevantPrevision);
-        if (windAdjustment > 1.0) {
-            volumeAdjustmentMultiplier *= windAdjustment;
-            adjustmentReason.append(String.format("Vent: %.1f km/h (ajustement: +%.1f%%). ", 
-                relevantPrevision.vent() != null ? relevantPrevision.vent() : 0,
-                (windAdjustment - 1.0) * 100));
+        Set<Long> parcelleIds = parcelleStationRegistry.getParcellesForStation(stationId);
+        if (parcelleIds.isEmpty()) {
+            log.debug("Aucune parcelle associée à la station {}", stationId);
+            return List.of();
         }
-        
-        // Strong wind threshold - consider postponement
-        if (relevantPrevision.vent() != null && relevantPrevision.vent() > 30.0) {
-            shouldPostpone = true;
-            log.info("Vent fort ({} km/h) prévu pour la date: {}. Report de l'irrigation.", 
-                relevantPrevision.vent(), programmeDateOnly);
+        return programmeRepo.findUpcomingProgrammesForParcelles(parcelleIds, startDate, endDate);
+    }
+
+    /**
+     * Batch adjustment engine: indexes the forecasts by date once and evaluates every programme
+     * in a single pass. Changes are written as one JDBC batch of conditional updates that only apply
+     * if the programme still has the version that was evaluated and is still adjustable. The programmes
+     * whose update lost a concurrent write are re-read under a row lock, re-evaluated and written in
+     * the next batch, at most {@link #MAX_ADJUSTMENT_ATTEMPTS} times.
+     * @return Number of programmes changed
+     */
+    private int adjustProgrammesBasedOnWeather(List<ProgrammeArrosage> programmes, List<PrevisionResponse> previsions) {
+        if (programmes == null || programmes.isEmpty() || previsions == null || previsions.isEmpty()) {
+            return 0;
         }
         
-        // ===== TEMPERATURE ADJUSTMENT (Priority 3: Never triggers postponement) =====
-        double temperatureAdjustment = calculateTemperatureAdjustment(relevantPrevision);
-        if (temperatureAdjustment > 1.0) {
-            volumeAdjustmentMultiplier *= temperatureAdjustment;
-            adjustmentReason.append(String.format("Température: %.1f°C (ajustement: +%.1f%%). ", 
-                relevantPrevision.temperatureMax() != null ? relevantPrevision.temperatureMax() : 0,
-                (temperatureAdjustment - 1.0) * 100));
+        Map<LocalDate, PrevisionResponse> previsionsByDate = indexPrevisionsByDate(previsions);
+        int changed = 0;
+        int conflicts = 0;
+        
+        List<ProgrammeVersion> pending = new ArrayList<>(programmes.size());
+        for (ProgrammeArrosage programme : programmes) {
+            if (ProgrammeStatut.ADJUSTABLE.contains(programme.getStatut())) {
+                pending.add(new ProgrammeVersion(programme.getId(), programme.getDatePlanifiee(),
+                    programme.getVolumePrevu(), programme.getStatut(), programme.getVersion()));
+            }
         }
         
-        // Apply adjustments
-        if (shouldPostpone) {
-            // Postpone to next viable date (skip 2 days forward)
-            LocalDateTime newDate = programme.getDatePlanifiee().plusDays(2);
-            programme.setDatePlanifiee(newDate);
-            programme.setStatut("REPLANIFIE");
-            log.info("Programme {} reporté au {}. Raison: {}", 
-                programme.getId(), newDate, adjustmentReason.toString().trim());
-        } else if (Math.abs(volumeAdjustmentMultiplier - 1.0) > 0.01) { // Only adjust if difference > 1%
-            // Apply volume adjustment if not postponing
-            Double originalVolume = programme.getVolumePrevu();
-            Double adjustedVolume = originalVolume * volumeAdjustmentMultiplier;
-            
-            // Enforce minimum and maximum volume bounds (20% to 200% of original)
-            adjustedVolume = Math.max(originalVolume * 0.2, Math.min(adjustedVolume, originalVolume * 2.0));
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            List<ScheduleUpdate> updates = new ArrayList<>(pending.size());
+            List<ScheduleChange> changes = new ArrayList<>(pending.size());
+            for (ProgrammeVersion state : pending) {
+                ScheduleChange change = adjustProgrammeBasedOnWeather(state, previsionsByDate);
+                if (change != null) {
+                    updates.add(new ScheduleUpdate(state.id(), state.version(), change.datePlanifiee(),
+                        change.volumePrevu(), change.statut()));
+                    changes.add(change);
+                }
+            }
             
-            programme.setVolumePrevu(adjustedVolume);
-            programme.setStatut("AJUSTE");
-            log.info("Programme {} ajusté. Volume: {}L -> {}L (multiplier: {}x). Raisons: {}", 
-                programme.getId(), String.format("%.2f", originalVolume), String.format("%.2f", adjustedVolume), 
-                String.format("%.2f", volumeAdjustmentMultiplier), adjustmentReason.toString().trim());
-        } else {
-            log.debug("Aucun ajustement nécessaire pour le programme {}", programme.getId());
+            boolean[] applied = programmeRepo.updateSchedules(updates, ProgrammeStatut.ADJUSTABLE);
+            List<ProgrammeVersion> retries = new ArrayList<>();
+            for (int i = 0; i < applied.length; i++) {
+                Long id = updates.get(i).id();
+                if (applied[i]) {
+                    log.info("Programme {} {}", id, changes.get(i).description());
+                    changed++;
+                    continue;
+                }
+                conflicts++;
+                if (attempt >= MAX_ADJUSTMENT_ATTEMPTS) {
+                    log.warn("Programme {} non ajusté après {} conflits d'écriture", id, attempt);
+                    continue;
+                }
+                // Locking read: sees the committed concurrent write and keeps the row until the retry
+                programmeRepo.lockProgrammeVersion(id)
+                    .filter(current -> ProgrammeStatut.ADJUSTABLE.contains(current.statut()))
+                    .ifPresent(retries::add);
+            }
+            pending = retries;
         }
         
-        // Persist the changes
-        try {
-            programmeRepo.save(programme);
-        } catch (Exception e) {
-            log.error("Erreur lors de la sauvegarde du programme {}: {}", programme.getId(), e.getMessage(), e);
+        log.info("Ajustement groupé: {} programmes évalués, {} programmes modifiés, {} conflits",
+            programmes.size(), changed, conflicts);
+        return changed;
+    }
+
+    /**
+     * Indexes forecasts by date, keeping the first forecast received for each date.
+     */
+    private Map<LocalDate, PrevisionResponse> indexPrevisionsByDate(List<PrevisionResponse> previsions) {
+        Map<LocalDate, PrevisionResponse> previsionsByDate = new HashMap<>(previsions.size() * 2);
+        for (PrevisionResponse prevision : previsions) {
+            if (prevision != null && prevision.date() != null) {
+                previsionsByDate.putIfAbsent(prevision.date(), prevision);
+            }
         }
+        return previsionsByDate;
     }
 
     /**
-     * Calculates rain-based volume adjustment.
-     * Rain reduces irrigation needs as it supplements natural water supply.
+     * Adjusts a programme's volume and schedule based on weather forecasts.
+     * Water Adjustment Algorithm (thresholds and multipliers come from {@link AdjustmentRules}):
+     * - Rain reduces the volume (default: 0.7x above 5mm, 0.4x above 15mm, 0.2x above 25mm)
+     * - Wind increases the volume to compensate for evaporation (default: from 1.15x above 20 km/h)
+     * - Heat increases the volume (default: from 1.2x above 30°C)
+     * - Handles edge cases: null values, invalid data, no programmes
+     * - Postpones only for extreme conditions (default: rain > 15mm OR wind > 30 km/h)
      * 
-     * Thresholds:
-     * - 0-5mm: No adjustment (threshold not reached)
-     * - 5-15mm: 30% reduction (0.7x multiplier)
-     * - 15-25mm: 60% reduction (0.4x multiplier)
-     * - >25mm: 80% reduction or postpone (0.2x multiplier, but postponement likely)
+     * Nothing is modified; applying the change is left to the caller.
+     * @return the new schedule of the programme, or null if it stays unchanged
      */
-    private double calculateRainAdjustment(PrevisionResponse prevision) {
-        if (prevision.pluiePrevue() == null || prevision.pluiePrevue() <= 5.0) {
-            return 1.0; // No adjustment below threshold
+    private ScheduleChange adjustProgrammeBasedOnWeather(ProgrammeVersion programme, Map<LocalDate, PrevisionResponse> previsionsByDate) {
+        // Edge case: programme without date
+        if (programme.datePlanifiee() == null) {
+            log.warn("Tentative d'ajustement d'un programme sans date: {}", programme.id());
+            return null;
         }
         
-        double rain = prevision.pluiePrevue();
-        double reduction;
+        LocalDate programmeDateOnly = programme.datePlanifiee().toLocalDate();
+        
+        // Find prevision matching the programme date
+        PrevisionResponse relevantPrevision = previsionsByDate.get(programmeDateOnly);
         
-        if (rain <= 15.0) {
-            // Moderate rain: 30% reduction (0.7x)
-            reduction = 0.30;
-        } else if (rain <= 25.0) {
-            // Heavy rain: 60% reduction (0.4x)
-            reduction = 0.60;
-        } else {
-            // Very heavy rain: 80% reduction (0.2x)
-            reduction = 0.80;
+        if (relevantPrevision == null) {
+            log.debug("Aucune prévision trouvée pour la date: {}", programmeDateOnly);
+            return null;
         }
         
-        double adjustmentMultiplier = 1.0 - reduction;
-        log.debug("Ajustement pluie: {} mm → multiplicateur de {:.2f}", rain, adjustmentMultiplier);
-        return adjustmentMultiplier;
-    }
-
-    /**
-     * Calculates temperature-based volume adjustment.
-     * Higher temperatures increase evaporation, requiring more irrigation.
-     * 
-     * Scaling:
-     * - Below 30°C: No adjustment
-     * - 30-35°C: 20% increase (1.2x multiplier)
-     * - 35-40°C: 35% increase (1.35x multiplier)
-     * - Above 40°C: 50% increase (1.5x multiplier) - but irrigation may be inadvisable
-     */
-    private double calculateTemperatureAdjustment(PrevisionResponse prevision) {
-        if (prevision.temperatureMax() == null || prevision.temperatureMax() <= 30.0) {
-            return 1.0; // No adjustment below threshold
+        // Edge case: null volumePrevu
+        if (programme.volumePrevu() == null || programme.volumePrevu() <= 0) {
+            log.warn("Volume prévu invalide pour le programme {}: {}", programme.id(), programme.volumePrevu());
+            return null;
         }
         
-        double temp = prevision.temperatureMax();
-        double increase;
+        // Unbox once; missing values become NaN, which the rule table treats as neutral
+        AdjustmentRuleTable rules = adjustmentRules.current();
+        double rain = valueOrNaN(relevantPrevision.pluiePrevue());
+        double wind = valueOrNaN(relevantPrevision.vent());
+        double temperature = valueOrNaN(relevantPrevision.temperatureMax());
+        
+        double rainAdjustment = rules.rainMultiplier(rain);
+        double windAdjustment = rules.windMultiplier(wind);
+        double temperatureAdjustment = rules.temperatureMultiplier(temperature);
+        
+        // Apply adjustments
+        if (rules.shouldPostpone(rain, wind, temperature)) {
+            // Postpone to next viable date
+            LocalDateTime newDate = programme.datePlanifiee().plusDays(rules.getPostponeDays());
+            return new ScheduleChange(newDate, programme.volumePrevu(), ProgrammeStatut.REPLANIFIE,
+                "reporté au " + newDate + ". Raison: "
+                    + describeAdjustment(rain, wind, temperature, rainAdjustment, windAdjustment, temperatureAdjustment));
+        }
         
-        if (temp <= 35.0) {
-            // Moderate heat: 20% increase (1.2x)
-            increase = 0.20;
-        } else if (temp <= 40.0) {
-            // High heat: 35% increase (1.35x)
-            increase = 0.35;
-        } else {
-            // Extreme heat: 50% increase (1.5x)
-            increase = 0.50;
+        // Bounded to the configured ratio of the original volume; 1 when below the change tolerance
+        double volumeAdjustmentMultiplier = rules.volumeMultiplier(rainAdjustment, windAdjustment, temperatureAdjustment);
+        if (volumeAdjustmentMultiplier != 1.0) {
+            double originalVolume = programme.volumePrevu();
+            double adjustedVolume = originalVolume * volumeAdjustmentMultiplier;
+            return new ScheduleChange(programme.datePlanifiee(), adjustedVolume, ProgrammeStatut.AJUSTE,
+                String.format("ajusté. Volume: %.2fL -> %.2fL (multiplier: %.2fx). Raisons: ",
+                    originalVolume, adjustedVolume, volumeAdjustmentMultiplier)
+                    + describeAdjustment(rain, wind, temperature, rainAdjustment, windAdjustment, temperatureAdjustment));
         }
         
-        double adjustmentMultiplier = 1.0 + increase;
-        log.debug("Ajustement température: {} °C → multiplicateur de {:.2f}", temp, adjustmentMultiplier);
-        return adjustmentMultiplier;
+        log.debug("Aucun ajustement nécessaire pour le programme {}", programme.id());
+        return null;
     }
 
     /**
-     * Calculates wind-based volume adjustment.
-     * Wind increases evaporation and water loss, requiring more irrigation.
-     * 
-     * Thresholds:
-     * - 0-20 km/h: No adjustment (threshold not reached)
-     * - 20-30 km/h: 15% increase (1.15x multiplier)
-     * - 30-40 km/h: 30% increase (1.3x multiplier) - but postponement likely
-     * - Above 40 km/h: 40% increase (1.4x multiplier) - strong postponement likely
+     * New schedule of a programme computed by the weather adjustment, with the reason logged once applied.
      */
-    private double calculateWindAdjustment(PrevisionResponse prevision) {
-        if (prevision.vent() == null || prevision.vent() <= 20.0) {
-            return 1.0; // No adjustment below threshold
+    private record ScheduleChange(LocalDateTime datePlanifiee, Double volumePrevu, String statut, String description) { }
+
+    private static double valueOrNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     * Builds the human-readable reason of an adjustment. Only called when the result is actually logged.
+     */
+    private String describeAdjustment(double rain, double wind, double temperature, double rainAdjustment,
+                                      double windAdjustment, double temperatureAdjustment) {
+        StringBuilder adjustmentReason = new StringBuilder();
+        if (rainAdjustment != 1.0) {
+            adjustmentReason.append(String.format("Pluie: %.1f mm (ajustement: %+.1f%%). ", 
+                Double.isNaN(rain) ? 0 : rain, (rainAdjustment - 1.0) * 100));
         }
-        
-        double wind = prevision.vent();
-        double increase;
-        
-        if (wind <= 30.0) {
-            // Moderate wind: 15% increase (1.15x)
-            increase = 0.15;
-        } else if (wind <= 40.0) {
-            // Strong wind: 30% increase (1.3x)
-            increase = 0.30;
-        } else {
-            // Very strong wind: 40% increase (1.4x)
-            increase = 0.40;
+        if (windAdjustment != 1.0) {
+            adjustmentReason.append(String.format("Vent: %.1f km/h (ajustement: %+.1f%%). ", 
+                Double.isNaN(wind) ? 0 : wind, (windAdjustment - 1.0) * 100));
         }
-        
-        double adjustmentMultiplier = 1.0 + increase;
-        log.debug("Ajustement vent: {} km/h → multiplicateur de {:.2f}", wind, adjustmentMultiplier);
-        return adjustmentMultiplier;
+        if (temperatureAdjustment != 1.0) {
+            adjustmentReason.append(String.format("Température: %.1f°C (ajustement: %+.1f%%). ", 
+                Double.isNaN(temperature) ? 0 : temperature, (temperatureAdjustment - 1.0) * 100));
+        }
+        return adjustmentReason.toString().trim();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<PrevisionResponse> fetchPrevisions(Long stationId) {
-        return meteoClient.getPrevisions(stationId);
+        return forecastCache.getPrevisions(stationId);
     }
 
     @Override
     @Transactional
     public void postponeProgramme(Long programmeId, LocalDateTime nouvelleDate) {
-        ProgrammeArrosage programme = programmeRepo.findById(programmeId)
-            .orElseThrow(() -> new IllegalArgumentException("Programme introuvable : " + programmeId));
-        programme.setDatePlanifiee(nouvelleDate);
-        programme.setStatut("REPLANIFIE");
-        programmeRepo.save(programme);
+        if (programmeRepo.replan(programmeId, ProgrammeStatut.PENDING, nouvelleDate) == 0) {
+            ProgrammeVersion current = programmeRepo.findProgrammeVersion(programmeId)
+                .orElseThrow(() -> new IllegalArgumentException("Programme introuvable : " + programmeId));
+            throw new IllegalArgumentException("Programme non replanifiable au statut " + current.statut() + " : " + programmeId);
+        }
     }
 
     /**
@@ -458,23 +628,21 @@ public class ArrosageServiceImpl implements IArrosageService {
             LocalDateTime now = LocalDateTime.now();
             LocalDateTime threeDaysLater = now.plusDays(3);
             
-            // Get upcoming programmes for the next 3 days only (more urgent adjustments)
-            List<ProgrammeArrosage> upcomingProgrammes = programmeRepo
-                .findUpcomingProgrammesByDateRange(now, threeDaysLater);
-            
-            log.info("Nombre de programmes à vérifier rapidement: {}", upcomingProgrammes.size());
-            
             List<Long> stationIds = getConfiguredStationIds();
             
             if (stationIds != null && !stationIds.isEmpty()) {
                 for (Long stationId : stationIds) {
                     try {
-                        List<PrevisionResponse> previsions = meteoClient.getPrevisions(stationId);
+                        // Get the station's upcoming programmes for the next 3 days only (more urgent adjustments)
+                        List<ProgrammeArrosage> upcomingProgrammes = clusterMembership.ownedProgrammes(
+                            findUpcomingProgrammesForStation(stationId, now, threeDaysLater));
+                        log.info("Nombre de programmes à vérifier rapidement pour la station {}: {}", stationId, upcomingProgrammes.size());
+                        if (upcomingProgrammes.isEmpty()) {
+                            continue;
+                        }
                         
-                        // Only adjust programmes scheduled for the next 3 days
-                        upcomingProgrammes.stream()
-                            .filter(p -> !p.getDatePlanifiee().isAfter(threeDaysLater))
-                            .forEach(p -> adjustProgrammeBasedOnWeather(p, previsions));
+                        List<PrevisionResponse> previsions = forecastCache.getPrevisions(stationId);
+                        adjustProgrammesBasedOnWeather(upcomingProgrammes, previsions);
                         
                     } catch (Exception e) {
                         log.warn("Erreur lors de l'ajustement rapide pour station {}: {}", stationId, e.getMessage());
@@ -497,7 +665,7 @@ public class ArrosageServiceImpl implements IArrosageService {
         int adjustmentCount = 0;
         try {
             // Fetch weather forecasts
-            List<PrevisionResponse> previsions = meteoClient.getPrevisions(stationId);
+            List<PrevisionResponse> previsions = forecastCache.getPrevisions(stationId);
             log.debug("Prévisions reçues pour la station {}: {} entrées", stationId, previsions.size());
             
             if (previsions == null || previsions.isEmpty()) {
@@ -505,19 +673,15 @@ public class ArrosageServiceImpl implements IArrosageService {
                 return 0;
             }
             
-            // Get all programmes scheduled for the date range
-            List<ProgrammeArrosage> existingProgrammes = programmeRepo
-                .findUpcomingProgrammesByDateRange(startDate, endDate);
+            // Get the station's programmes scheduled for the date range
+            // (only the parcels owned by this instance when several replicas run)
+            List<ProgrammeArrosage> existingProgrammes = clusterMembership.ownedProgrammes(
+                findUpcomingProgrammesForStation(stationId, startDate, endDate));
             
             log.info("Traitement de {} programmes existants pour la station {}", existingProgrammes.size(), stationId);
             
             // Adjust existing programmes based on weather
-            for (ProgrammeArrosage programme : existingProgrammes) {
-                if (programme != null) {
-                    adjustProgrammeBasedOnWeather(programme, previsions);
-                    adjustmentCount++;
-                }
-            }
+            adjustmentCount = adjustProgrammesBasedOnWeather(existingProgrammes, previsions);
             
             // Auto-create programmes for dates with favorable conditions but no existing programme
             int createdCount = createAutoProgammesForFavorableWeather(stationId, previsions, startDate, endDate);
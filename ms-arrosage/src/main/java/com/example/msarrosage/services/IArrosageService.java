@@ -1,13 +1,24 @@
 package com.example.msarrosage.services;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import com.example.msarrosage.dto.BilanResponse;
+import com.example.msarrosage.dto.CursorPage;
+import com.example.msarrosage.dto.JournalFilter;
 import com.example.msarrosage.dto.JournalRequest;
+import com.example.msarrosage.dto.JournalResponse;
+import com.example.msarrosage.dto.ParcelleStationRequest;
 import com.example.msarrosage.dto.PrevisionResponse;
+import com.example.msarrosage.dto.ProgrammeFilter;
 import com.example.msarrosage.dto.ProgrammeRequest;
+import com.example.msarrosage.dto.ProgrammeResponse;
 import com.example.msarrosage.entities.JournalArrosage;
+import com.example.msarrosage.entities.JournalRollup;
+import com.example.msarrosage.entities.ParcelleStation;
 import com.example.msarrosage.entities.ProgrammeArrosage;
 
 public interface IArrosageService {
@@ -16,20 +27,42 @@ public interface IArrosageService {
     
     ProgrammeArrosage getProgrammeById(Long id);
     
+    CursorPage<ProgrammeResponse> findProgrammes(ProgrammeFilter filter, Long after, int size);
+    
+    void exportProgrammes(ProgrammeFilter filter, Consumer<ProgrammeResponse> consumer);
+    
     ProgrammeArrosage createProgramme(ProgrammeRequest request);
     
     ProgrammeArrosage updateProgramme(Long id, ProgrammeRequest request);
     
     void deleteProgramme(Long id);
     
-    List<JournalArrosage> getJournal();
+    List<JournalResponse> getJournal();
+    
+    CursorPage<JournalResponse> findJournal(JournalFilter filter, Long after, int size);
+    
+    void exportJournal(JournalFilter filter, Consumer<JournalResponse> consumer);
+    
+    List<JournalRollup> getJournalRollups(String granularite, Long parcelleId, LocalDate from, LocalDate to);
     
     JournalArrosage logExecution(JournalRequest request);
 
     void deleteJournalEntry(Long id);
     
+    List<ParcelleStation> getParcelleStations();
+    
+    ParcelleStation assignStation(ParcelleStationRequest request);
+    
+    void deleteParcelleStation(Long parcelleId);
+    
+    BilanResponse getBilan(Long parcelleId);
+    
     void handleWeatherEvent(Map<String, Object> payload);
     
+    int adjustProgrammesForStation(Long stationId, List<PrevisionResponse> previsions);
+    
+    int adjustProgrammes(List<ProgrammeArrosage> programmes, List<PrevisionResponse> previsions);
+    
     List<PrevisionResponse> fetchPrevisions(Long stationId);
     
     void postponeProgramme(Long programmeId, LocalDateTime nouvelleDate);
@@ -0,0 +1,104 @@
+package com.example.msarrosage.services;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.msarrosage.entities.ParcelleStation;
+import com.example.msarrosage.repositories.ParcelleStationRepository;
+
+/**
+ * In-memory lookup of the parcel → station mapping.
+ * The mapping is loaded at startup, reloaded whenever it is modified through the service
+ * and periodically refreshed so that changes made by other instances are picked up.
+ */
+@Component
+public class ParcelleStationRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ParcelleStationRegistry.class);
+
+    private final ParcelleStationRepository parcelleStationRepo;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    public ParcelleStationRegistry(ParcelleStationRepository parcelleStationRepo) {
+        this.parcelleStationRepo = parcelleStationRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.parcelles.registry-refresh-interval:300000}",
+               initialDelayString = "${app.parcelles.registry-refresh-interval:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Reload the whole mapping from the database and swap it in atomically.
+     */
+    public void refresh() {
+        try {
+            List<ParcelleStation> mappings = parcelleStationRepo.findAll();
+            Map<Long, Long> stationByParcelle = new HashMap<>();
+            Map<Long, Set<Long>> parcellesByStation = new HashMap<>();
+            for (ParcelleStation mapping : mappings) {
+                stationByParcelle.put(mapping.getParcelleId(), mapping.getStationId());
+                parcellesByStation.computeIfAbsent(mapping.getStationId(), k -> new HashSet<>())
+                    .add(mapping.getParcelleId());
+            }
+            parcellesByStation.replaceAll((stationId, parcelles) -> Set.copyOf(parcelles));
+            snapshot = new Snapshot(Map.copyOf(stationByParcelle), Map.copyOf(parcellesByStation));
+            log.debug("Correspondance parcelle/station rechargée: {} parcelles, {} stations",
+                stationByParcelle.size(), parcellesByStation.size());
+        } catch (Exception e) {
+            log.error("Erreur lors du chargement de la correspondance parcelle/station: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reload the mapping once the current transaction has committed, or immediately outside a transaction.
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    /**
+     * @return true if no parcel has been associated with a station yet
+     */
+    public boolean isEmpty() {
+        return snapshot.stationByParcelle().isEmpty();
+    }
+
+    public Set<Long> getParcellesForStation(Long stationId) {
+        return snapshot.parcellesByStation().getOrDefault(stationId, Set.of());
+    }
+
+    public Long getStationForParcelle(Long parcelleId) {
+        return snapshot.stationByParcelle().get(parcelleId);
+    }
+
+    private record Snapshot(Map<Long, Long> stationByParcelle, Map<Long, Set<Long>> parcellesByStation) { }
+}
@@ -0,0 +1,281 @@
+package com.example.msarrosage.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.msarrosage.dto.BilanResponse;
+import com.example.msarrosage.dto.JournalExecution;
+import com.example.msarrosage.entities.BilanParcelle;
+import com.example.msarrosage.entities.BilanParcelleJour;
+import com.example.msarrosage.repositories.BilanParcelleJourRepository;
+import com.example.msarrosage.repositories.BilanParcelleRepository;
+import com.example.msarrosage.repositories.JournalArrosageRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Incrementally maintained water balance of each parcel: cumulative volume, last execution,
+ * rolling 7/30-day volumes and failure streak.
+ *
+ * Journal writes apply their effect to {@code bilan_parcelle} and to the daily volumes of
+ * {@code bilan_parcelle_jour} with relative updates in their own transaction, so the stored
+ * balances include exactly the committed journal entries, whatever order they commit in and
+ * whichever instance writes them. The tables are rebuilt from the journal when the daily volumes
+ * are missing (first start). An execution counts as failed when it delivered no volume.
+ *
+ * Reads are served from a per-instance map of the balances, each held in primitive fields with a
+ * daily ring of the rolling window. A parcel is loaded from the tables on first read, dropped once
+ * a journal write of this instance on it completes, and reloaded after
+ * {@code app.parcelles.bilan.cache-ttl} so that writes of the other instances are picked up.
+ */
+@Component
+public class WaterBalanceStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WaterBalanceStore.class);
+
+    private static final int WINDOW_DAYS = 30;
+
+    private final BilanParcelleRepository bilanRepo;
+    private final BilanParcelleJourRepository jourRepo;
+    private final JournalArrosageRepository journalRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate insertTemplate;
+    private final long cacheTtlMillis;
+
+    private final Map<Long, ParcelleBalance> balances = new ConcurrentHashMap<>();
+
+    public WaterBalanceStore(BilanParcelleRepository bilanRepo,
+                             BilanParcelleJourRepository jourRepo,
+                             JournalArrosageRepository journalRepo,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.parcelles.bilan.cache-ttl:5000}") long cacheTtlMillis) {
+        this.bilanRepo = bilanRepo;
+        this.jourRepo = jourRepo;
+        this.journalRepo = journalRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.insertTemplate = new TransactionTemplate(transactionManager);
+        this.insertTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cacheTtlMillis = cacheTtlMillis;
+        meterRegistry.gauge("arrosage.bilan.parcelles", balances, Map::size);
+    }
+
+    /**
+     * Builds the balance tables from the journal if they were never built, before schedulers
+     * and listeners start.
+     */
+    @PostConstruct
+    public void load() {
+        if (jourRepo.count() == 0 && journalRepo.count() > 0) {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                // Another instance starting at the same time may have rebuilt them first
+                log.warn("Échec du recalcul des bilans hydriques: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Recomputes every balance from the whole journal.
+     */
+    private void rebuild() {
+        LocalDate firstDay = LocalDate.now().minusDays(WINDOW_DAYS - 1L);
+        Map<Long, BilanParcelle> bilans = new HashMap<>();
+        Map<Long, Map<LocalDate, Double>> days = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<JournalExecution> executions = journalRepo.streamExecutionsAfter(0L)) {
+                executions.forEach(execution -> {
+                    if (execution.parcelleId() == null || execution.dateExecution() == null) {
+                        return;
+                    }
+                    double volume = execution.volumeReel() != null ? execution.volumeReel() : 0.0;
+                    BilanParcelle bilan = bilans.computeIfAbsent(execution.parcelleId(),
+                        id -> BilanParcelle.builder().parcelleId(id).build());
+                    bilan.setVolumeCumule(bilan.getVolumeCumule() + volume);
+                    if (bilan.getDerniereExecution() == null
+                            || bilan.getDerniereExecution().isBefore(execution.dateExecution())) {
+                        bilan.setDerniereExecution(execution.dateExecution());
+                    }
+                    bilan.setEchecsConsecutifs(volume > 0 ? 0 : bilan.getEchecsConsecutifs() + 1);
+                    LocalDate day = execution.dateExecution().toLocalDate();
+                    if (!day.isBefore(firstDay)) {
+                        days.computeIfAbsent(execution.parcelleId(), id -> new HashMap<>()).merge(day, volume, Double::sum);
+                    }
+                });
+            }
+            List<BilanParcelleJour> jours = new ArrayList<>();
+            days.forEach((parcelleId, volumes) -> volumes.forEach((day, volume) -> jours.add(
+                BilanParcelleJour.builder().parcelleId(parcelleId).jour(day).volume(volume).build())));
+            bilanRepo.deleteAllInBatch();
+            jourRepo.deleteAllInBatch();
+            bilanRepo.saveAll(bilans.values());
+            jourRepo.saveAll(jours);
+        });
+        log.info("Bilans hydriques recalculés depuis le journal: {} parcelles", bilans.size());
+    }
+
+    /**
+     * Records a journal entry saved in the current transaction, which must be active.
+     */
+    public void recordExecution(Long parcelleId, LocalDateTime dateExecution, Double volumeReel) {
+        if (parcelleId == null || dateExecution == null) {
+            return;
+        }
+        double volume = volumeReel != null ? volumeReel : 0.0;
+        LocalDate day = dateExecution.toLocalDate();
+        if (!bilanRepo.existsById(parcelleId)) {
+            insertIfAbsent(() -> bilanRepo.saveAndFlush(BilanParcelle.builder().parcelleId(parcelleId).build()));
+        }
+        bilanRepo.addExecution(parcelleId, dateExecution, volume);
+        if (!jourRepo.existsByParcelleIdAndJour(parcelleId, day)) {
+            insertIfAbsent(() -> jourRepo.saveAndFlush(
+                BilanParcelleJour.builder().parcelleId(parcelleId).jour(day).build()));
+        }
+        jourRepo.addVolume(parcelleId, day, volume);
+        evictAfterCompletion(parcelleId);
+    }
+
+    /**
+     * Removes the volume of a journal entry deleted in the current transaction, which must be active.
+     * The last execution time and the failure streak are not rewound.
+     */
+    public void recordDeletion(Long parcelleId, LocalDateTime dateExecution, Double volumeReel) {
+        if (parcelleId == null || dateExecution == null || volumeReel == null || volumeReel == 0.0) {
+            return;
+        }
+        bilanRepo.removeVolume(parcelleId, volumeReel);
+        jourRepo.addVolume(parcelleId, dateExecution.toLocalDate(), -volumeReel);
+        evictAfterCompletion(parcelleId);
+    }
+
+    /**
+     * Drops the daily volumes that left the rolling window.
+     */
+    @Scheduled(cron = "${app.parcelles.bilan.purge-cron:0 30 1 * * *}")
+    public void purgeExpiredDays() {
+        LocalDate firstDay = LocalDate.now().minusDays(WINDOW_DAYS - 1L);
+        Integer purged = transactionTemplate.execute(status -> jourRepo.deleteBefore(firstDay));
+        log.debug("Volumes journaliers purgés: {}", purged);
+    }
+
+    /**
+     * Constant time once the parcel is cached: one map lookup and a scan of the 30 daily slots.
+     */
+    public BilanResponse getBilan(Long parcelleId) {
+        long now = System.currentTimeMillis();
+        ParcelleBalance balance = balances.get(parcelleId);
+        if (balance == null || balance.loadedAt + cacheTtlMillis <= now) {
+            balance = readTemplate.execute(status -> loadBalance(parcelleId, now));
+            balances.put(parcelleId, balance);
+        }
+        return balance.toResponse(parcelleId, LocalDate.now().toEpochDay());
+    }
+
+    private ParcelleBalance loadBalance(Long parcelleId, long loadedAt) {
+        ParcelleBalance balance = new ParcelleBalance(loadedAt);
+        bilanRepo.findById(parcelleId).ifPresent(bilan -> {
+            balance.volumeCumule = bilan.getVolumeCumule();
+            balance.derniereExecution = bilan.getDerniereExecution();
+            balance.echecsConsecutifs = bilan.getEchecsConsecutifs();
+        });
+        LocalDate firstDay = LocalDate.now().minusDays(WINDOW_DAYS - 1L);
+        for (BilanParcelleJour jour : jourRepo.findByParcelleIdAndJourGreaterThanEqual(parcelleId, firstDay)) {
+            balance.putDay(jour.getJour().toEpochDay(), jour.getVolume());
+        }
+        return balance;
+    }
+
+    /**
+     * Drops the cached balance once the current transaction ends, committed or not: the next read
+     * loads the committed state.
+     */
+    private void evictAfterCompletion(Long parcelleId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            balances.remove(parcelleId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                balances.remove(parcelleId);
+            }
+        });
+    }
+
+    /**
+     * Creates an empty row in its own transaction, so that it is visible to the relative update
+     * that follows. A row created meanwhile by another writer is fine.
+     */
+    private void insertIfAbsent(Runnable insert) {
+        try {
+            insertTemplate.executeWithoutResult(status -> insert.run());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Ligne de bilan déjà créée par une autre transaction: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Balance of a parcel as loaded from the tables. Immutable once published; {@code volumes[slot]}
+     * holds the volume of the day {@code days[slot]}, slot being the epoch day modulo the window.
+     */
+    private static final class ParcelleBalance {
+
+        final long loadedAt;
+        final double[] volumes = new double[WINDOW_DAYS];
+        final long[] days = new long[WINDOW_DAYS];
+        double volumeCumule;
+        LocalDateTime derniereExecution;
+        int echecsConsecutifs;
+
+        ParcelleBalance(long loadedAt) {
+            this.loadedAt = loadedAt;
+            Arrays.fill(days, Long.MIN_VALUE);
+        }
+
+        void putDay(long epochDay, double volume) {
+            int slot = (int) Math.floorMod(epochDay, (long) WINDOW_DAYS);
+            days[slot] = epochDay;
+            volumes[slot] = volume;
+        }
+
+        BilanResponse toResponse(Long parcelleId, long today) {
+            double volume7Jours = 0.0;
+            double volume30Jours = 0.0;
+            for (int slot = 0; slot < WINDOW_DAYS; slot++) {
+                long age = today - days[slot];
+                if (age >= 0 && age < WINDOW_DAYS) {
+                    volume30Jours += volumes[slot];
+                    if (age < 7) {
+                        volume7Jours += volumes[slot];
+                    }
+                }
+            }
+            return new BilanResponse(parcelleId, volumeCumule, volume7Jours, volume30Jours,
+                derniereExecution, echecsConsecutifs);
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.msarrosage.web;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,23 +18,41 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.msarrosage.dto.BilanResponse;
+import com.example.msarrosage.dto.CursorPage;
+import com.example.msarrosage.dto.JournalFilter;
 import com.example.msarrosage.dto.JournalRequest;
+import com.example.msarrosage.dto.JournalResponse;
+import com.example.msarrosage.dto.ParcelleStationRequest;
 import com.example.msarrosage.dto.PrevisionResponse;
+import com.example.msarrosage.dto.ProgrammeFilter;
 import com.example.msarrosage.dto.ProgrammeRequest;
+import com.example.msarrosage.dto.ProgrammeResponse;
 import com.example.msarrosage.entities.JournalArrosage;
+import com.example.msarrosage.entities.JournalRollup;
+import com.example.msarrosage.entities.ParcelleStation;
 import com.example.msarrosage.entities.ProgrammeArrosage;
 import com.example.msarrosage.services.IArrosageService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 @RestController
 @RequestMapping("/api/arrosage")
 public class ArrosageController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final IArrosageService arrosageService;
+    private final ObjectWriter rowWriter;
 
-    public ArrosageController(IArrosageService arrosageService) {
+    public ArrosageController(IArrosageService arrosageService, ObjectMapper objectMapper) {
         this.arrosageService = arrosageService;
+        this.rowWriter = objectMapper.writer();
     }
 
     @GetMapping("/programmes")
@@ -34,6 +60,32 @@ public class ArrosageController {
         return ResponseEntity.ok(arrosageService.getProgrammes());
     }
 
+    @GetMapping("/programmes/page")
+    public ResponseEntity<CursorPage<ProgrammeResponse>> pageProgrammes(
+            @RequestParam(required = false) Long parcelleId,
+            @RequestParam(required = false) String statut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int size) {
+        ProgrammeFilter filter = new ProgrammeFilter(parcelleId, statut, from, to);
+        return ResponseEntity.ok(arrosageService.findProgrammes(filter, after, size));
+    }
+
+    /**
+     * Exports the filtered programmes as NDJSON, one object per line, written as rows are read.
+     */
+    @GetMapping("/programmes/export")
+    public ResponseEntity<StreamingResponseBody> exportProgrammes(
+            @RequestParam(required = false) Long parcelleId,
+            @RequestParam(required = false) String statut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ProgrammeFilter filter = new ProgrammeFilter(parcelleId, statut, from, to);
+        StreamingResponseBody body = out -> arrosageService.exportProgrammes(filter, ndjsonWriter(out));
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
     @PostMapping("/programmes")
     public ResponseEntity<ProgrammeArrosage> createProgramme(@RequestBody ProgrammeRequest request) {
         return ResponseEntity.ok(arrosageService.createProgramme(request));
@@ -56,10 +108,48 @@ public class ArrosageController {
     }
 
     @GetMapping("/journal")
-    public ResponseEntity<List<JournalArrosage>> listJournal() {
+    public ResponseEntity<List<JournalResponse>> listJournal() {
         return ResponseEntity.ok(arrosageService.getJournal());
     }
 
+    @GetMapping("/journal/page")
+    public ResponseEntity<CursorPage<JournalResponse>> pageJournal(
+            @RequestParam(required = false) Long programmeId,
+            @RequestParam(required = false) Long parcelleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int size) {
+        JournalFilter filter = new JournalFilter(programmeId, parcelleId, from, to);
+        return ResponseEntity.ok(arrosageService.findJournal(filter, after, size));
+    }
+
+    /**
+     * Exports the filtered journal entries as NDJSON, one object per line, written as rows are read.
+     */
+    @GetMapping("/journal/export")
+    public ResponseEntity<StreamingResponseBody> exportJournal(
+            @RequestParam(required = false) Long programmeId,
+            @RequestParam(required = false) Long parcelleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        JournalFilter filter = new JournalFilter(programmeId, parcelleId, from, to);
+        StreamingResponseBody body = out -> arrosageService.exportJournal(filter, ndjsonWriter(out));
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Daily (JOUR) or weekly (SEMAINE) per-parcel journal aggregates; defaults to the last 30 days.
+     */
+    @GetMapping("/journal/rollups")
+    public ResponseEntity<List<JournalRollup>> listJournalRollups(
+            @RequestParam(defaultValue = JournalRollup.JOUR) String granularite,
+            @RequestParam(required = false) Long parcelleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(arrosageService.getJournalRollups(granularite, parcelleId, from, to));
+    }
+
     @PostMapping("/journal")
     public ResponseEntity<JournalArrosage> logJournal(@RequestBody JournalRequest request) {
         return ResponseEntity.ok(arrosageService.logExecution(request));
@@ -71,8 +161,42 @@ public class ArrosageController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/parcelles/stations")
+    public ResponseEntity<List<ParcelleStation>> listParcelleStations() {
+        return ResponseEntity.ok(arrosageService.getParcelleStations());
+    }
+
+    @PostMapping("/parcelles/stations")
+    public ResponseEntity<ParcelleStation> assignStation(@RequestBody ParcelleStationRequest request) {
+        return ResponseEntity.ok(arrosageService.assignStation(request));
+    }
+
+    @DeleteMapping("/parcelles/{parcelleId}/station")
+    public ResponseEntity<Void> deleteParcelleStation(@PathVariable Long parcelleId) {
+        arrosageService.deleteParcelleStation(parcelleId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/parcelles/{parcelleId}/bilan")
+    public ResponseEntity<BilanResponse> getBilan(@PathVariable Long parcelleId) {
+        return ResponseEntity.ok(arrosageService.getBilan(parcelleId));
+    }
+
     @GetMapping("/previsions/{stationId}")
     public ResponseEntity<List<PrevisionResponse>> getPrevisions(@PathVariable Long stationId) {
         return ResponseEntity.ok(arrosageService.fetchPrevisions(stationId));
     }
+
+    private <T> Consumer<T> ndjsonWriter(OutputStream out) {
+        return row -> {
+            try {
+                out.write(rowWriter.writeValueAsBytes(row));
+                out.write('\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Sérialisation impossible : " + row, e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
 }
@@ -0,0 +1,94 @@
+package com.example.msarrosage.clients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import com.example.msarrosage.dto.PrevisionResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A lookup arriving while the same station is being fetched must wait for that request
+ * instead of sending its own. Bursts of concurrent lookups are covered on the ms-meteo side.
+ */
+class MeteoForecastCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean failing;
+    private MeteoForecastCache cache;
+
+    @BeforeEach
+    void setUp() {
+        MeteoClient meteoClient = (stationId, ifNoneMatch) -> {
+            requests.incrementAndGet();
+            awaitRelease();
+            if (failing) {
+                throw new IllegalStateException("ms-meteo indisponible");
+            }
+            return ResponseEntity.ok(List.of(new PrevisionResponse(null, stationId, LocalDate.now(), 30.0, 18.0, 2.0, 10.0)));
+        };
+        cache = new MeteoForecastCache(meteoClient, meterRegistry, 60_000, 100);
+    }
+
+    @Test
+    void lookupDuringAFetchSharesItsRequest() {
+        CompletableFuture<List<PrevisionResponse>> first = CompletableFuture.supplyAsync(() -> cache.getPrevisions(1L));
+        CompletableFuture<List<PrevisionResponse>> second = joinFetch(1L);
+
+        assertThat(second.join()).isSameAs(first.join());
+        assertThat(requests).hasValue(1);
+        assertThat(cache.getPrevisions(1L)).isSameAs(first.join());
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void failureIsSharedAndNextLookupRetries() {
+        failing = true;
+        CompletableFuture<List<PrevisionResponse>> first = CompletableFuture.supplyAsync(() -> cache.getPrevisions(1L));
+        CompletableFuture<List<PrevisionResponse>> second = joinFetch(1L);
+
+        assertThatThrownBy(first::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(requests).hasValue(1);
+
+        failing = false;
+        assertThat(cache.getPrevisions(1L)).hasSize(1);
+        assertThat(requests).hasValue(2);
+    }
+
+    /**
+     * Starts a second lookup once the first one is fetching, and lets the fetch complete once
+     * the second lookup waits for it.
+     */
+    private CompletableFuture<List<PrevisionResponse>> joinFetch(Long stationId) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> requests.get() == 1);
+        CompletableFuture<List<PrevisionResponse>> second = CompletableFuture.supplyAsync(() -> cache.getPrevisions(stationId));
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> meterRegistry.get("arrosage.forecast.cache").tag("result", "coalesced").counter().count() == 1);
+        release.countDown();
+        return second;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
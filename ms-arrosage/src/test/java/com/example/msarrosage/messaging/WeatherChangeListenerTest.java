@@ -0,0 +1,236 @@
+package com.example.msarrosage.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.retry.RepublishMessageRecoverer;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.example.msarrosage.clients.MeteoForecastCache;
+import com.example.msarrosage.config.RabbitConfig;
+import com.example.msarrosage.dto.WeatherEvent;
+import com.example.msarrosage.services.IArrosageService;
+import com.github.fridujo.rabbitmq.mock.MockConnectionFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the weather consumer pipeline (batch listener, typed conversion, coalesced adjustment, retry
+ * and dead-lettering) against an in-process broker.
+ */
+@SpringJUnitConfig(WeatherChangeListenerTest.BrokerConfig.class)
+@TestPropertySource(properties = {
+    "spring.rabbitmq.enabled=true",
+    "irrigation.exchange=irrigation.exchange",
+    "irrigation.routing-key=weather.key",
+    "irrigation.queue=arrosage.queue",
+    "irrigation.consumer.max-concurrency=1",
+    "irrigation.consumer.batch-size=10",
+    "irrigation.consumer.receive-timeout=200",
+    "irrigation.consumer.retry.max-attempts=2",
+    "irrigation.consumer.retry.initial-interval=10",
+    "irrigation.consumer.retry.max-interval=10",
+    "irrigation.consumer.adjustment-timeout=5000"
+})
+class WeatherChangeListenerTest {
+
+    private static final String DEAD_LETTER_QUEUE = "arrosage.queue.dlq";
+
+    @Configuration
+    @EnableRabbit
+    @Import({RabbitConfig.class, WeatherChangeListener.class, ForecastCacheListener.class})
+    static class BrokerConfig {
+
+        @Bean
+        ConnectionFactory connectionFactory() {
+            return new CachingConnectionFactory(new MockConnectionFactory());
+        }
+
+        @Bean
+        RabbitAdmin rabbitAdmin(ConnectionFactory connectionFactory) {
+            return new RabbitAdmin(connectionFactory);
+        }
+
+        @Bean
+        RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+            return new RabbitTemplate(connectionFactory);
+        }
+
+        @Bean
+        IArrosageService arrosageService() {
+            return mock(IArrosageService.class);
+        }
+
+        @Bean
+        MeteoForecastCache forecastCache() {
+            return mock(MeteoForecastCache.class);
+        }
+
+        @Bean
+        WeatherEventCoalescer coalescer(IArrosageService arrosageService, MeteoForecastCache forecastCache) {
+            return spy(new WeatherEventCoalescer(arrosageService, forecastCache, new SimpleMeterRegistry(), 10));
+        }
+    }
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private WeatherEventCoalescer coalescer;
+
+    @Autowired
+    private IArrosageService arrosageService;
+
+    @Autowired
+    private MeteoForecastCache forecastCache;
+
+    @Autowired
+    private RabbitListenerEndpointRegistry listeners;
+
+    private final List<WeatherEvent> received = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        reset(coalescer, arrosageService, forecastCache);
+        received.clear();
+        doAnswer(invocation -> {
+            received.addAll(invocation.getArgument(0));
+            return invocation.callRealMethod();
+        }).when(coalescer).submitAll(anyList());
+        while (rabbitTemplate.receive(DEAD_LETTER_QUEUE) != null) {
+            // Drain the dead letters of the previous test
+        }
+    }
+
+    @Test
+    void deliversPerDayEventsAndWeatherBatchesAsTypedEventsInBulk() {
+        listeners.stop();
+        for (int day = 1; day <= 19; day++) {
+            send(perDayEvent(1L, LocalDate.of(2026, 6, day)));
+        }
+        send(json("weatherBatch", """
+            {"stationId":2,"previsions":[
+             {"previsionId":7,"date":[2026,6,2],"temperatureMax":31.5,"pluiePrevue":0.0,"vent":12.0},
+             {"previsionId":8,"date":"2026-06-03","temperatureMax":29.0,"pluiePrevue":4.5,"vent":8.0}]}
+            """));
+        listeners.start();
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> received.size() == 21);
+        // 20 messages with a batch size of 10: two listener calls
+        verify(coalescer, times(2)).submitAll(anyList());
+        assertThat(received).filteredOn(event -> event.stationId() == 1L).hasSize(19)
+            .allSatisfy(event -> assertThat(event.pluiePrevue()).isEqualTo(2.5));
+        assertThat(received).filteredOn(event -> event.stationId() == 2L)
+            .extracting(WeatherEvent::date)
+            .containsExactly(LocalDate.of(2026, 6, 2), LocalDate.of(2026, 6, 3));
+    }
+
+    @Test
+    void unreadableMessageIsDeadLetteredWithoutFailingTheOthers() {
+        send(json(WeatherEvent.TYPE_ID, "{not json"));
+        send(perDayEvent(3L, LocalDate.of(2026, 6, 1)));
+
+        Message deadLetter = rabbitTemplate.receive(DEAD_LETTER_QUEUE, 10_000);
+        assertThat(deadLetter).isNotNull();
+        assertThat(new String(deadLetter.getBody(), StandardCharsets.UTF_8)).isEqualTo("{not json");
+        await().atMost(Duration.ofSeconds(10)).until(() -> received.size() == 1);
+        assertThat(received.get(0).stationId()).isEqualTo(3L);
+    }
+
+    @Test
+    void batchWithFailingAdjustmentIsRetriedThenDeadLettered() {
+        when(arrosageService.adjustProgrammesForStation(eq(4L), anyList()))
+            .thenThrow(new IllegalStateException("base indisponible"));
+
+        send(perDayEvent(4L, LocalDate.of(2026, 6, 1)));
+
+        Message deadLetter = rabbitTemplate.receive(DEAD_LETTER_QUEUE, 10_000);
+        assertThat(deadLetter).isNotNull();
+        assertThat((String) deadLetter.getMessageProperties().getHeader(RepublishMessageRecoverer.X_EXCEPTION_MESSAGE))
+            .contains("base indisponible");
+        verify(arrosageService, times(2)).adjustProgrammesForStation(eq(4L), anyList());
+    }
+
+    @Test
+    void batchIsAcknowledgedOnceItsAdjustmentIsDone() {
+        send(perDayEvent(5L, LocalDate.of(2026, 6, 1)));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+            verify(arrosageService).adjustProgrammesForStation(eq(5L), anyList()));
+        assertThat(rabbitTemplate.receive(DEAD_LETTER_QUEUE, 500)).isNull();
+        verify(coalescer, times(1)).submitAll(anyList());
+    }
+
+    @Test
+    void forecastCacheIsUpdatedFromItsOwnQueue() {
+        send(perDayEvent(6L, LocalDate.of(2026, 6, 1)));
+        send(json(WeatherEvent.TYPE_ID, "{\"stationId\":7}"));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            verify(forecastCache).refresh(eq(6L), argThat(previsions -> previsions.size() == 1));
+            verify(forecastCache, atLeastOnce()).invalidate(7L);
+        });
+    }
+
+    private void send(Message message) {
+        rabbitTemplate.send("irrigation.exchange", "weather.key", message);
+    }
+
+    /**
+     * A per-day event as published by ms-meteo: a map under the java.util.HashMap type id.
+     */
+    private static Message perDayEvent(Long stationId, LocalDate date) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("previsionId", date.getDayOfMonth());
+        payload.put("stationId", stationId);
+        payload.put("date", date.toString());
+        payload.put("temperatureMax", 28.0);
+        payload.put("temperatureMin", 15.0);
+        payload.put("pluiePrevue", 2.5);
+        payload.put("vent", 10.0);
+        return new Jackson2JsonMessageConverter().toMessage(payload, new MessageProperties());
+    }
+
+    private static Message json(String typeId, String body) {
+        return MessageBuilder.withBody(body.getBytes(StandardCharsets.UTF_8))
+            .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+            .setHeader("__TypeId__", typeId)
+            .build();
+    }
+}
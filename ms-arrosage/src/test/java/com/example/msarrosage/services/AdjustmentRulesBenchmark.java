@@ -0,0 +1,180 @@
+package com.example.msarrosage.services;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.msarrosage.config.AdjustmentRulesProperties;
+import com.example.msarrosage.dto.PrevisionResponse;
+
+/**
+ * Per-programme cost of the weather adjustment rules: the compiled {@link AdjustmentRuleTable}
+ * against the former hard-coded if/else ladders reading boxed getters.
+ * Results are reported per evaluated forecast.
+ *
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.msarrosage.services.AdjustmentRulesBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdjustmentRulesBenchmark {
+
+    private static final int PREVISIONS = 4096;
+
+    private final AdjustmentRuleTable table = AdjustmentRuleTable.compile(new AdjustmentRulesProperties());
+    private PrevisionResponse[] previsions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        previsions = new PrevisionResponse[PREVISIONS];
+        LocalDate date = LocalDate.of(2026, 6, 1);
+        for (int i = 0; i < PREVISIONS; i++) {
+            previsions[i] = new PrevisionResponse(null, 1L, date.plusDays(i % 16),
+                random.nextInt(20) == 0 ? null : 15 + random.nextDouble() * 30,
+                5 + random.nextDouble() * 15,
+                random.nextInt(20) == 0 ? null : random.nextDouble() * 35,
+                random.nextInt(20) == 0 ? null : random.nextDouble() * 50);
+        }
+        for (PrevisionResponse prevision : previsions) {
+            if (compiled(prevision) != legacy(prevision)) {
+                throw new IllegalStateException("Compiled and legacy rules disagree for " + prevision);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PREVISIONS)
+    public double compiledTable() {
+        double sum = 0;
+        for (PrevisionResponse prevision : previsions) {
+            sum += compiled(prevision);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PREVISIONS)
+    public double legacyLadders() {
+        double sum = 0;
+        for (PrevisionResponse prevision : previsions) {
+            sum += legacy(prevision);
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AdjustmentRulesBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Mirrors the evaluation done in ArrosageServiceImpl: a negative result encodes a postponement.
+     */
+    private double compiled(PrevisionResponse prevision) {
+        double rain = prevision.pluiePrevue() != null ? prevision.pluiePrevue() : Double.NaN;
+        double wind = prevision.vent() != null ? prevision.vent() : Double.NaN;
+        double temperature = prevision.temperatureMax() != null ? prevision.temperatureMax() : Double.NaN;
+        if (table.shouldPostpone(rain, wind, temperature)) {
+            return -1.0;
+        }
+        return table.volumeMultiplier(table.rainMultiplier(rain), table.windMultiplier(wind),
+            table.temperatureMultiplier(temperature));
+    }
+
+    private static double legacy(PrevisionResponse prevision) {
+        boolean shouldPostpone = false;
+        double multiplier = 1.0;
+        double rainAdjustment = legacyRain(prevision);
+        if (rainAdjustment < 1.0) {
+            multiplier *= rainAdjustment;
+            if (prevision.pluiePrevue() != null && prevision.pluiePrevue() > 15.0) {
+                shouldPostpone = true;
+            }
+        }
+        double windAdjustment = legacyWind(prevision);
+        if (windAdjustment > 1.0) {
+            multiplier *= windAdjustment;
+        }
+        if (prevision.vent() != null && prevision.vent() > 30.0) {
+            shouldPostpone = true;
+        }
+        double temperatureAdjustment = legacyTemperature(prevision);
+        if (temperatureAdjustment > 1.0) {
+            multiplier *= temperatureAdjustment;
+        }
+        if (shouldPostpone) {
+            return -1.0;
+        }
+        if (Math.abs(multiplier - 1.0) > 0.01) {
+            return Math.max(0.2, Math.min(multiplier, 2.0));
+        }
+        return 1.0;
+    }
+
+    private static double legacyRain(PrevisionResponse prevision) {
+        if (prevision.pluiePrevue() == null || prevision.pluiePrevue() <= 5.0) {
+            return 1.0;
+        }
+        double rain = prevision.pluiePrevue();
+        double reduction;
+        if (rain <= 15.0) {
+            reduction = 0.30;
+        } else if (rain <= 25.0) {
+            reduction = 0.60;
+        } else {
+            reduction = 0.80;
+        }
+        return 1.0 - reduction;
+    }
+
+    private static double legacyTemperature(PrevisionResponse prevision) {
+        if (prevision.temperatureMax() == null || prevision.temperatureMax() <= 30.0) {
+            return 1.0;
+        }
+        double temp = prevision.temperatureMax();
+        double increase;
+        if (temp <= 35.0) {
+            increase = 0.20;
+        } else if (temp <= 40.0) {
+            increase = 0.35;
+        } else {
+            increase = 0.50;
+        }
+        return 1.0 + increase;
+    }
+
+    private static double legacyWind(PrevisionResponse prevision) {
+        if (prevision.vent() == null || prevision.vent() <= 20.0) {
+            return 1.0;
+        }
+        double wind = prevision.vent();
+        double increase;
+        if (wind <= 30.0) {
+            increase = 0.15;
+        } else if (wind <= 40.0) {
+            increase = 0.30;
+        } else {
+            increase = 0.40;
+        }
+        return 1.0 + increase;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.msmeteo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Compact forecast row selected directly by the bulk forecast query, with the station id
+ * instead of the nested station.
+ */
+public record PrevisionView(
+        Long id,
+        Long stationId,
+        LocalDate date,
+        Double temperatureMax,
+        Double temperatureMin,
+        Double pluiePrevue,
+        Double vent) {
+}
@@ -0,0 +1,27 @@
+package com.example.msmeteo.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Single message carrying all daily forecasts produced by one station refresh.
+ */
+public record WeatherBatch(
+        Long stationId,
+        List<DailyPrevision> previsions) {
+
+    /**
+     * Message type id shared with the consumers, independent of the Java class name.
+     */
+    public static final String TYPE_ID = "weatherBatch";
+
+    public record DailyPrevision(
+            Long previsionId,
+            Long stationId,
+            LocalDate date,
+            Double temperatureMax,
+            Double temperatureMin,
+            Double pluiePrevue,
+            Double vent) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.msmeteo.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Weather event written in the transaction that changed the forecasts and published to the broker
+ * afterwards by the outbox relay. Rows are deleted once the broker has confirmed them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox",
+       indexes = @Index(name = "idx_outbox_next_attempt", columnList = "next_attempt_at"))
+public class OutboxEvent {
+
+    /** One forecast day, published as a map (per-day publish mode) */
+    public static final String WEATHER_CHANGE = "weatherChange";
+
+    /** All forecasts of a station refresh, published as a WeatherBatch */
+    public static final String WEATHER_BATCH = "weatherBatch";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "station_id", nullable = false)
+    private Long stationId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    /** JSON of the message body */
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    private int attempts;
+
+    /** Set after a failed attempt; the events of the station are held back until then */
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
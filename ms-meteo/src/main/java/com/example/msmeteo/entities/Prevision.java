@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -20,7 +21,11 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "prevision")
+@Table(name = "prevision",
+       indexes = {
+           @Index(name = "idx_prevision_station_date", columnList = "station_id, date"),
+           @Index(name = "idx_prevision_change_version", columnList = "change_version")
+       })
 public class Prevision {
 
     @Id
@@ -38,6 +43,10 @@ public class Prevision {
 
     private Double vent;
 
+    // Version stamped on every insert or update, read by delta forecast requests
+    @Column(name = "change_version")
+    private Long changeVersion;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = "station_id")
     private StationMeteo station;
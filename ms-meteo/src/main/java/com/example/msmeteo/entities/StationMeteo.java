@@ -29,4 +29,10 @@ public class StationMeteo {
     private Double longitude;
 
     private String fournisseur;
+
+    // Version of the last forecast change of the station, used for conditional forecast reads
+    private Long forecastVersion;
+
+    // Version of the last forecast deletion of the station: delta reads spanning it are answered in full
+    private Long deletionVersion;
 }
@@ -0,0 +1,261 @@
+package com.example.msmeteo.messaging;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.msmeteo.dto.WeatherBatch;
+import com.example.msmeteo.entities.OutboxEvent;
+import com.example.msmeteo.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes the outbox events to the broker.
+ *
+ * Each pass loads the oldest events in batches, publishes the whole batch on the relay thread and
+ * then waits for the publisher confirms. Confirmed events are deleted, the others are retried with
+ * an exponential backoff. Delivery is at-least-once and ordered per station: once an event of a
+ * station fails, the later events of that station are retried after it, even if they were confirmed,
+ * so that the last message received for a station is always its latest forecast.
+ *
+ * A single relay runs per deployment (ms-meteo runs one replica).
+ */
+@Component
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final TypeReference<HashMap<String, Object>> WEATHER_CHANGE_TYPE = new TypeReference<>() { };
+
+    private final OutboxEventRepository outboxRepo;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final String exchange;
+    private final String routingKey;
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+    private final long retryBackoffMillis;
+    private final long maxBackoffMillis;
+    private final boolean confirms;
+
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final Timer deliveryTimer;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxRepo,
+                       RabbitTemplate rabbitTemplate,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${irrigation.exchange}") String exchange,
+                       @Value("${irrigation.routing-key}") String routingKey,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.confirm-timeout:5000}") long confirmTimeoutMillis,
+                       @Value("${app.outbox.retry-backoff:1000}") long retryBackoffMillis,
+                       @Value("${app.outbox.max-backoff:300000}") long maxBackoffMillis) {
+        this.outboxRepo = outboxRepo;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+        this.batchSize = Math.max(1, batchSize);
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.confirms = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+        if (!confirms) {
+            log.warn("Publisher confirms are disabled: outbox events are deleted as soon as they are sent");
+        }
+
+        this.relayedCounter = Counter.builder("meteo.outbox.relayed")
+            .description("Outbox events confirmed by the broker")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("meteo.outbox.failed")
+            .description("Outbox event publications failed or not confirmed, to be retried")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("meteo.outbox.batch")
+            .description("Duration of the publication of an outbox batch, confirms included")
+            .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("meteo.outbox.delivery")
+            .description("Delay between the creation of an outbox event and its confirmation")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("meteo.outbox.pending", pending, AtomicLong::get)
+            .description("Outbox events waiting to be published")
+            .register(meterRegistry);
+        Gauge.builder("meteo.outbox.lag", lagMillis, value -> value.get() / 1000.0)
+            .description("Age in seconds of the oldest outbox event")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Drains the outbox, batch after batch, until it is empty or a batch is not fully confirmed.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:1000}")
+    public void relay() {
+        try {
+            while (relayBatch() == batchSize) {
+                // Full batch confirmed, more events may be waiting
+            }
+        } catch (Exception e) {
+            log.error("Outbox relay failed: ", e);
+        } finally {
+            refreshGauges();
+        }
+    }
+
+    /**
+     * Publishes the next batch of events.
+     * @return number of events confirmed
+     */
+    int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxRepo.findRelayable(now, PageRequest.ofSize(batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        Set<Long> blockedStations = new HashSet<>();
+        List<InFlight> inFlight = new ArrayList<>(events.size());
+        List<OutboxEvent> failed = new ArrayList<>();
+
+        for (OutboxEvent event : events) {
+            if (blockedStations.contains(event.getStationId())) {
+                failed.add(event);
+                continue;
+            }
+            CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+            try {
+                rabbitTemplate.convertAndSend(exchange, routingKey, readPayload(event), correlation);
+                inFlight.add(new InFlight(event, correlation));
+            } catch (Exception e) {
+                event.setLastError(e.getMessage());
+                failed.add(event);
+                blockedStations.add(event.getStationId());
+            }
+        }
+
+        // Confirms arrive asynchronously; wait for the whole batch with a single deadline
+        List<Long> confirmed = new ArrayList<>(inFlight.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+        for (InFlight sent : inFlight) {
+            OutboxEvent event = sent.event();
+            String error = awaitConfirm(sent.correlation(), deadline);
+            if (error == null && !blockedStations.contains(event.getStationId())) {
+                confirmed.add(event.getId());
+                deliveryTimer.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } else {
+                event.setLastError(error != null ? error : "Earlier event of the station not confirmed");
+                failed.add(event);
+                blockedStations.add(event.getStationId());
+            }
+        }
+
+        for (OutboxEvent event : failed) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+            if (event.getLastError() != null && event.getLastError().length() > 500) {
+                event.setLastError(event.getLastError().substring(0, 500));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!confirmed.isEmpty()) {
+                outboxRepo.deleteAllByIdInBatch(confirmed);
+            }
+            if (!failed.isEmpty()) {
+                outboxRepo.saveAll(failed);
+            }
+        });
+
+        relayedCounter.increment(confirmed.size());
+        failedCounter.increment(failed.size());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!failed.isEmpty()) {
+            log.warn("Outbox batch: {} event(s) confirmed, {} to retry for {} station(s)",
+                confirmed.size(), failed.size(), blockedStations.size());
+        } else {
+            log.debug("Outbox batch: {} event(s) confirmed", confirmed.size());
+        }
+        return confirmed.size();
+    }
+
+    private Object readPayload(OutboxEvent event) throws IOException {
+        if (OutboxEvent.WEATHER_BATCH.equals(event.getEventType())) {
+            return objectMapper.readValue(event.getPayload(), WeatherBatch.class);
+        }
+        return objectMapper.readValue(event.getPayload(), WEATHER_CHANGE_TYPE);
+    }
+
+    /**
+     * @return null once the broker acknowledged the message, otherwise the reason of the failure
+     */
+    private String awaitConfirm(CorrelationData correlation, long deadline) {
+        if (!confirms) {
+            return null;
+        }
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                .get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return confirm.isAck() ? null : "Nack: " + confirm.getReason();
+        } catch (TimeoutException e) {
+            return "No confirm within " + confirmTimeoutMillis + " ms";
+        } catch (ExecutionException e) {
+            return e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Interrupted while waiting for the confirm";
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long delay = retryBackoffMillis << Math.min(attempts - 1, 20);
+        return Duration.ofMillis(Math.min(delay, maxBackoffMillis));
+    }
+
+    private void refreshGauges() {
+        try {
+            pending.set(outboxRepo.count());
+            LocalDateTime oldest = outboxRepo.findOldestCreatedAt();
+            lagMillis.set(oldest != null ? Math.max(0L, Duration.between(oldest, LocalDateTime.now()).toMillis()) : 0L);
+        } catch (Exception e) {
+            log.debug("Outbox gauges not refreshed: {}", e.getMessage());
+        }
+    }
+
+    private record InFlight(OutboxEvent event, CorrelationData correlation) { }
+}
@@ -1,32 +1,77 @@
 package com.example.msmeteo.messaging;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.msmeteo.dto.WeatherBatch;
+import com.example.msmeteo.entities.OutboxEvent;
 import com.example.msmeteo.entities.Prevision;
+import com.example.msmeteo.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Records weather events in the outbox table, in the transaction that changed the forecasts.
+ * Events therefore exist only if the forecasts were committed, and the broker is never called
+ * while the transaction is open: the {@link OutboxRelay} publishes them afterwards.
+ */
 @Component
 @ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
 public class WeatherEventPublisher {
 
-    private final RabbitTemplate rabbitTemplate;
-    private final String exchange;
-    private final String routingKey;
+    private final OutboxEventRepository outboxRepo;
+    private final ObjectMapper objectMapper;
+    private final boolean batchMode;
 
-    public WeatherEventPublisher(RabbitTemplate rabbitTemplate,
-                                 @Value("${irrigation.exchange}") String exchange,
-                                 @Value("${irrigation.routing-key}") String routingKey) {
-        this.rabbitTemplate = rabbitTemplate;
-        this.exchange = exchange;
-        this.routingKey = routingKey;
+    public WeatherEventPublisher(OutboxEventRepository outboxRepo,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.weather.publish-mode:per-day}") String publishMode) {
+        this.outboxRepo = outboxRepo;
+        this.objectMapper = objectMapper;
+        this.batchMode = "batch".equalsIgnoreCase(publishMode);
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishWeatherChange(Prevision prevision) {
+        Long stationId = prevision.getStation().getId();
+        outboxRepo.save(toEvent(stationId, OutboxEvent.WEATHER_CHANGE, toPayload(prevision)));
+    }
+
+    /**
+     * Record the forecasts of one station refresh: a single {@link WeatherBatch} event in batch mode,
+     * otherwise one event per day.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishWeatherChanges(Long stationId, List<Prevision> previsions) {
+        if (previsions.isEmpty()) {
+            return;
+        }
+        if (!batchMode) {
+            List<OutboxEvent> events = new ArrayList<>(previsions.size());
+            for (Prevision prevision : previsions) {
+                events.add(toEvent(stationId, OutboxEvent.WEATHER_CHANGE, toPayload(prevision)));
+            }
+            outboxRepo.saveAll(events);
+            return;
+        }
+
+        WeatherBatch batch = new WeatherBatch(stationId, previsions.stream()
+            .map(p -> new WeatherBatch.DailyPrevision(p.getId(), stationId, p.getDate(),
+                p.getTemperatureMax(), p.getTemperatureMin(), p.getPluiePrevue(), p.getVent()))
+            .toList());
+        outboxRepo.save(toEvent(stationId, OutboxEvent.WEATHER_BATCH, batch));
+    }
+
+    private Map<String, Object> toPayload(Prevision prevision) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("previsionId", prevision.getId());
         payload.put("stationId", prevision.getStation().getId());
@@ -35,6 +80,19 @@ public class WeatherEventPublisher {
         payload.put("temperatureMin", prevision.getTemperatureMin());
         payload.put("pluiePrevue", prevision.getPluiePrevue());
         payload.put("vent", prevision.getVent());
-        rabbitTemplate.convertAndSend(exchange, routingKey, payload);
+        return payload;
+    }
+
+    private OutboxEvent toEvent(Long stationId, String eventType, Object payload) {
+        try {
+            return OutboxEvent.builder()
+                .stationId(stationId)
+                .eventType(eventType)
+                .payload(objectMapper.writeValueAsString(payload))
+                .createdAt(LocalDateTime.now())
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Serialization of the weather event of station " + stationId + " failed", e);
+        }
     }
 }
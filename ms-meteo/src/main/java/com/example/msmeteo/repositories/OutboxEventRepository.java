@@ -0,0 +1,25 @@
+package com.example.msmeteo.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.msmeteo.entities.OutboxEvent;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Oldest events in creation order, skipping every station that has an event waiting for a retry
+     * so that the events of a station are always published in order.
+     */
+    @Query("SELECT o FROM OutboxEvent o WHERE o.stationId NOT IN "
+        + "(SELECT w.stationId FROM OutboxEvent w WHERE w.nextAttemptAt > :now) ORDER BY o.id")
+    List<OutboxEvent> findRelayable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT MIN(o.createdAt) FROM OutboxEvent o")
+    LocalDateTime findOldestCreatedAt();
+}
@@ -1,15 +1,73 @@
 package com.example.msmeteo.repositories;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.example.msmeteo.dto.PrevisionView;
 import com.example.msmeteo.entities.Prevision;
 import com.example.msmeteo.entities.StationMeteo;
 
+import jakarta.persistence.QueryHint;
+
 public interface PrevisionRepository extends JpaRepository<Prevision, Long> {
     List<Prevision> findByStationAndDateGreaterThanEqual(StationMeteo station, LocalDate date);
 
-    void deleteByStationAndDateBetween(StationMeteo station, LocalDate start, LocalDate end);
+    List<Prevision> findByStationAndDateBetween(StationMeteo station, LocalDate start, LocalDate end);
+
+    @Query("SELECT MAX(p.date) FROM Prevision p")
+    LocalDate findLastDate();
+
+    String PREVISION_VIEW = "SELECT new com.example.msmeteo.dto.PrevisionView("
+        + "p.id, p.station.id, p.date, p.temperatureMax, p.temperatureMin, p.pluiePrevue, p.vent) FROM Prevision p "
+        + "WHERE p.date >= :startDate AND (:endDate IS NULL OR p.date <= :endDate) ";
+
+    /**
+     * Streams the forecasts of every station from {@code startDate}, ordered by station and date.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PREVISION_VIEW + "ORDER BY p.station.id, p.date")
+    Stream<PrevisionView> streamPrevisions(@Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+
+    /**
+     * Same as {@link #streamPrevisions(LocalDate, LocalDate)} restricted to the given stations,
+     * read through the (station_id, date) index.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PREVISION_VIEW + "AND p.station.id IN :stationIds ORDER BY p.station.id, p.date")
+    Stream<PrevisionView> streamPrevisionsForStations(@Param("stationIds") Collection<Long> stationIds,
+                                                      @Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+
+    /**
+     * Same as {@link #streamPrevisions(LocalDate, LocalDate)} restricted to the forecasts
+     * changed after version {@code since}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PREVISION_VIEW + "AND p.changeVersion > :since ORDER BY p.station.id, p.date")
+    Stream<PrevisionView> streamChangedPrevisions(@Param("since") long since,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PREVISION_VIEW + "AND p.changeVersion > :since AND p.station.id IN :stationIds "
+        + "ORDER BY p.station.id, p.date")
+    Stream<PrevisionView> streamChangedPrevisionsForStations(@Param("stationIds") Collection<Long> stationIds,
+                                                             @Param("since") long since,
+                                                             @Param("startDate") LocalDate startDate,
+                                                             @Param("endDate") LocalDate endDate);
+
+    @Query(PREVISION_VIEW + "AND p.station.id = :stationId ORDER BY p.date")
+    List<PrevisionView> findViewsByStation(@Param("stationId") Long stationId,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
 }
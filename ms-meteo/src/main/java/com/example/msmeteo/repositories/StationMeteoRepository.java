@@ -1,8 +1,39 @@
 package com.example.msmeteo.repositories;
 
+import java.util.Collection;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.msmeteo.entities.StationMeteo;
 
 public interface StationMeteoRepository extends JpaRepository<StationMeteo, Long> {
+
+    /**
+     * Raise the forecast version of a station, never lowering it.
+     */
+    @Modifying
+    @Query("UPDATE StationMeteo s SET s.forecastVersion = :version "
+        + "WHERE s.id = :stationId AND (s.forecastVersion IS NULL OR s.forecastVersion < :version)")
+    int raiseForecastVersion(@Param("stationId") Long stationId, @Param("version") long version);
+
+    /**
+     * Raise the deletion version of a station, never lowering it.
+     */
+    @Modifying
+    @Query("UPDATE StationMeteo s SET s.deletionVersion = :version "
+        + "WHERE s.id = :stationId AND (s.deletionVersion IS NULL OR s.deletionVersion < :version)")
+    int raiseDeletionVersion(@Param("stationId") Long stationId, @Param("version") long version);
+
+    boolean existsByDeletionVersionGreaterThan(Long version);
+
+    boolean existsByIdInAndDeletionVersionGreaterThan(Collection<Long> stationIds, Long version);
+
+    @Query("SELECT MAX(s.forecastVersion) FROM StationMeteo s")
+    Long findMaxForecastVersion();
+
+    @Query("SELECT MAX(s.forecastVersion) FROM StationMeteo s WHERE s.id IN :stationIds")
+    Long findMaxForecastVersion(@Param("stationIds") Collection<Long> stationIds);
 }
@@ -0,0 +1,50 @@
+package com.example.msmeteo.scheduling;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits outbound calls to a weather provider host: at most {@code maxConcurrent} calls in flight
+ * and at most {@code requestsPerSecond} call starts per second (0 disables the rate limit).
+ */
+class FetchThrottle {
+
+    private final Semaphore permits;
+    private final long intervalNanos;
+    private long nextSlotNanos = System.nanoTime();
+
+    FetchThrottle(int maxConcurrent, double requestsPerSecond) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.intervalNanos = requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0L;
+    }
+
+    /**
+     * Blocks until a concurrency permit and a rate slot are available. Must be paired with {@link #release()}.
+     */
+    void acquire() throws InterruptedException {
+        permits.acquire();
+        try {
+            long waitNanos = reserveSlot();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    private synchronized long reserveSlot() {
+        if (intervalNanos == 0) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextSlotNanos);
+        nextSlotNanos = slot + intervalNanos;
+        return slot - now;
+    }
+}
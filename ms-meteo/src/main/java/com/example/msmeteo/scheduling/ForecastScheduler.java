@@ -1,22 +1,39 @@
 package com.example.msmeteo.scheduling;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.msmeteo.entities.Prevision;
 import com.example.msmeteo.entities.StationMeteo;
 import com.example.msmeteo.repositories.PrevisionRepository;
+import com.example.msmeteo.services.ForecastStore;
 import com.example.msmeteo.services.IWeatherService;
 import com.example.msmeteo.services.OpenMeteoClient;
 import com.example.msmeteo.services.OpenMeteoClient.DailyForecast;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
 @Component
 @ConditionalOnProperty(name = "spring.scheduling.enabled", havingValue = "true", matchIfMissing = true)
 public class ForecastScheduler {
@@ -25,43 +42,160 @@ public class ForecastScheduler {
     private final IWeatherService weatherService;
     private final OpenMeteoClient openMeteoClient;
     private final PrevisionRepository previsionRepository;
+    private final ForecastStore forecastStore;
+    private final TransactionTemplate transactionTemplate;
+    private final double changeTolerance;
+
+    // Fetches run on a bounded pool, throttled per provider host; persistence stays on the scheduler thread
+    private final ExecutorService fetchExecutor;
+    private final FetchThrottle fetchThrottle;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer runTimer;
+    private final Timer fetchTimer;
+    private final AtomicInteger stationsTotal = new AtomicInteger();
+    private final AtomicInteger stationsDone = new AtomicInteger();
 
     public ForecastScheduler(IWeatherService weatherService,
                              OpenMeteoClient openMeteoClient,
-                             PrevisionRepository previsionRepository) {
+                             PrevisionRepository previsionRepository,
+                             ForecastStore forecastStore,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.weather.ingestion.threads:8}") int threads,
+                             @Value("${app.weather.ingestion.max-concurrent-per-host:4}") int maxConcurrentPerHost,
+                             @Value("${app.weather.ingestion.requests-per-second:10}") double requestsPerSecond,
+                             @Value("${app.weather.change-tolerance:0.05}") double changeTolerance) {
         this.weatherService = weatherService;
         this.openMeteoClient = openMeteoClient;
         this.previsionRepository = previsionRepository;
+        this.forecastStore = forecastStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeTolerance = changeTolerance;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "forecast-fetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.fetchThrottle = new FetchThrottle(maxConcurrentPerHost, requestsPerSecond);
+        this.meterRegistry = meterRegistry;
+        this.runTimer = Timer.builder("meteo.forecast.ingestion.run")
+            .description("Duration of a complete forecast ingestion run")
+            .register(meterRegistry);
+        this.fetchTimer = Timer.builder("meteo.forecast.ingestion.fetch")
+            .description("Latency of a forecast fetch request")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        meterRegistry.gauge("meteo.forecast.ingestion.stations.total", stationsTotal);
+        meterRegistry.gauge("meteo.forecast.ingestion.stations.done", stationsDone);
     }
 
     /**
      * Fetch forecasts every 6 hours (21600000 ms)
      * In production, this would call a real weather API like Meteo France
+     * 
+     * Station forecasts are fetched concurrently and each station is stored in its own
+     * short transaction as soon as its forecasts arrive.
      */
     @Scheduled(fixedDelayString = "${app.scheduling.forecast.fixed-delay:21600000}",
               initialDelayString = "${app.scheduling.forecast.initial-delay:60000}")
-    @Transactional
     public void fetchAndGenerateForecasts() {
         log.info("=== Starting automatic forecast generation ===");
+        Timer.Sample runSample = Timer.start(meterRegistry);
         
         try {
             List<StationMeteo> stations = weatherService.getAllStations();
             log.info("Found {} stations to process", stations.size());
+            stationsTotal.set(stations.size());
+            stationsDone.set(0);
+
+            // Stations are fetched in multi-location requests, each request being one fetch task
+            CompletionService<FetchResult> completion = new ExecutorCompletionService<>(fetchExecutor);
+            int batchSize = openMeteoClient.getBatchSize();
+            int requests = 0;
+            for (int from = 0; from < stations.size(); from += batchSize) {
+                List<StationMeteo> batch = List.copyOf(stations.subList(from, Math.min(from + batchSize, stations.size())));
+                completion.submit(() -> fetchForecasts(batch));
+                requests++;
+            }
+
+            int failed = 0;
+            for (int i = 0; i < requests; i++) {
+                FetchResult result;
+                try {
+                    result = completion.take().get();
+                } catch (ExecutionException e) {
+                    log.error("Forecast fetch failed: ", e.getCause());
+                    failed++;
+                    continue;
+                }
+
+                if (result.failed()) {
+                    // The request failed as a whole, keep the stored forecasts of its stations
+                    result.stations().forEach(station -> countStation("failed"));
+                    failed += result.stations().size();
+                    stationsDone.addAndGet(result.stations().size());
+                    continue;
+                }
+
+                for (StationMeteo station : result.stations()) {
+                    List<DailyForecast> forecasts = result.forecasts().getOrDefault(station.getId(), List.of());
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> generateForecastsForStation(station, forecasts));
+                        countStation(forecasts.isEmpty() ? "empty" : "success");
+                    } catch (Exception e) {
+                        log.error("Error storing forecasts for station {}: ", station.getId(), e);
+                        countStation("failed");
+                        failed++;
+                    }
 
-            for (StationMeteo station : stations) {
-                generateForecastsForStation(station);
+                    int done = stationsDone.incrementAndGet();
+                    if (done % 100 == 0) {
+                        log.info("Forecast generation progress: {}/{} stations", done, stations.size());
+                    }
+                }
             }
 
-            log.info("=== Forecast generation completed successfully ===");
+            log.info("=== Forecast generation completed: {} stations, {} failed ===", stations.size(), failed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Forecast generation interrupted");
         } catch (Exception e) {
             log.error("Error during forecast generation: ", e);
+        } finally {
+            // Serve the stored forecasts of this run, including those of a partially failed one
+            forecastStore.rebuild();
+            runSample.stop(runTimer);
         }
     }
 
-    @Transactional
-    private void generateForecastsForStation(StationMeteo station) {
+    private FetchResult fetchForecasts(List<StationMeteo> stations) throws InterruptedException {
+        fetchThrottle.acquire();
+        try {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Map<Long, List<DailyForecast>> forecasts = openMeteoClient.fetchDailyForecasts(stations);
+            sample.stop(fetchTimer);
+            return new FetchResult(stations, forecasts, false);
+        } catch (RuntimeException e) {
+            // HTTP, I/O and parse errors of the provider: every station of the request failed
+            log.error("Forecast fetch failed for {} stations: {}", stations.size(), e.getMessage());
+            return new FetchResult(stations, Map.of(), true);
+        } finally {
+            fetchThrottle.release();
+        }
+    }
+
+    private void countStation(String outcome) {
+        Counter.builder("meteo.forecast.ingestion.stations")
+            .description("Stations processed by forecast ingestion runs")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private void generateForecastsForStation(StationMeteo station, List<DailyForecast> forecasts) {
         log.info("Generating forecasts for station: {} (ID: {})", station.getNom(), station.getId());
-        List<DailyForecast> forecasts = openMeteoClient.fetchDailyForecasts(station);
         if (forecasts.isEmpty()) {
             log.warn("No forecasts returned for station {}", station.getId());
             return;
@@ -70,22 +204,70 @@ public class ForecastScheduler {
         LocalDate today = LocalDate.now();
         LocalDate end = today.plusDays(openMeteoClient.getForecastDays());
 
-        previsionRepository.deleteByStationAndDateBetween(station, today, end);
+        // Diff against the stored forecasts of the window, loaded once
+        Map<LocalDate, Prevision> existingByDate = new HashMap<>();
+        for (Prevision existing : previsionRepository.findByStationAndDateBetween(station, today, end)) {
+            existingByDate.put(existing.getDate(), existing);
+        }
 
-        forecasts.stream()
-            .filter(df -> !df.date().isBefore(today))
-            .forEach(df -> {
-                Prevision prevision = Prevision.builder()
+        List<Prevision> changed = new ArrayList<>();
+        int unchanged = 0;
+        for (DailyForecast df : forecasts) {
+            if (df.date().isBefore(today)) {
+                continue;
+            }
+            Prevision existing = existingByDate.remove(df.date());
+            if (existing == null) {
+                changed.add(Prevision.builder()
                     .station(station)
                     .date(df.date())
                     .temperatureMax(df.temperatureMax())
                     .temperatureMin(df.temperatureMin())
                     .pluiePrevue(df.pluiePrevue())
                     .vent(df.vent())
-                    .build();
-                weatherService.savePrevision(prevision);
-                log.debug("Stored forecast for station {} on {}: rain={}mm, tMax={}°C, tMin={}°C, wind={}km/h",
-                    station.getId(), df.date(), df.pluiePrevue(), df.temperatureMax(), df.temperatureMin(), df.vent());
-            });
+                    .build());
+            } else if (hasChanged(existing, df)) {
+                existing.setTemperatureMax(df.temperatureMax());
+                existing.setTemperatureMin(df.temperatureMin());
+                existing.setPluiePrevue(df.pluiePrevue());
+                existing.setVent(df.vent());
+                changed.add(existing);
+            } else {
+                unchanged++;
+                continue;
+            }
+            log.debug("Storing forecast for station {} on {}: rain={}mm, tMax={}°C, tMin={}°C, wind={}km/h",
+                station.getId(), df.date(), df.pluiePrevue(), df.temperatureMax(), df.temperatureMin(), df.vent());
+        }
+
+        // Days of the window no longer returned by the provider
+        if (!existingByDate.isEmpty()) {
+            weatherService.deleteStationPrevisions(station, existingByDate.values());
+        }
+
+        log.info("Station {}: {} forecasts changed, {} removed, {} unchanged", station.getId(), changed.size(),
+            existingByDate.size(), unchanged);
+        if (!changed.isEmpty()) {
+            // Saved together so that only real changes are published, as one weather batch
+            weatherService.saveStationPrevisions(station, changed);
+        }
     }
+
+    private boolean hasChanged(Prevision existing, DailyForecast forecast) {
+        return differs(existing.getTemperatureMax(), forecast.temperatureMax())
+            || differs(existing.getTemperatureMin(), forecast.temperatureMin())
+            || differs(existing.getPluiePrevue(), forecast.pluiePrevue())
+            || differs(existing.getVent(), forecast.vent());
+    }
+
+    private boolean differs(Double stored, double fetched) {
+        return stored == null || Math.abs(stored - fetched) > changeTolerance;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private record FetchResult(List<StationMeteo> stations, Map<Long, List<DailyForecast>> forecasts, boolean failed) { }
 }
@@ -0,0 +1,302 @@
+package com.example.msmeteo.services;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.msmeteo.dto.PrevisionView;
+import com.example.msmeteo.entities.StationMeteo;
+import com.example.msmeteo.repositories.PrevisionRepository;
+import com.example.msmeteo.repositories.StationMeteoRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * In-memory copy of the upcoming forecasts, stored as primitive columns indexed by
+ * station slot and day offset, so that forecast reads do not go through JPA.
+ * The database stays the system of record: the store is rebuilt from it at startup,
+ * after each forecast ingestion run and after a manual forecast is committed,
+ * and each rebuild is swapped in atomically.
+ * Reads the store cannot answer (unknown station, dates outside its window) return
+ * {@code false} and are served from the database by the caller.
+ */
+@Component
+public class ForecastStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastStore.class);
+
+    private final PrevisionRepository previsionRepo;
+    private final StationMeteoRepository stationRepo;
+    private final TransactionTemplate readTransaction;
+    private final boolean enabled;
+    private final int maxDays;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer rebuildTimer;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public ForecastStore(PrevisionRepository previsionRepo,
+                         StationMeteoRepository stationRepo,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.weather.store.enabled:true}") boolean enabled,
+                         @Value("${app.weather.store.max-days:32}") int maxDays) {
+        this.previsionRepo = previsionRepo;
+        this.stationRepo = stationRepo;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxDays = Math.max(1, maxDays);
+        this.meterRegistry = meterRegistry;
+        this.rebuildTimer = Timer.builder("meteo.forecast.store.rebuild")
+            .description("Duration of a forecast store rebuild")
+            .register(meterRegistry);
+        meterRegistry.gauge("meteo.forecast.store.rows", this, store -> store.snapshot.rows);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reload the forecasts from today on and swap the new columns in.
+     * Rebuilds are serialized so that a slower, older rebuild never replaces a newer one.
+     */
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Snapshot built = readTransaction.execute(status -> load(LocalDate.now()));
+            snapshot = built;
+            log.debug("Forecast store rebuilt: {} stations, {} days, {} forecasts{}", built.stationIds.length,
+                built.days, built.rows, built.truncated ? " (truncated)" : "");
+        } catch (Exception e) {
+            log.error("Error rebuilding the forecast store: {}", e.getMessage(), e);
+        } finally {
+            sample.stop(rebuildTimer);
+        }
+    }
+
+    /**
+     * Rebuild once the current transaction has committed, or immediately outside a transaction.
+     */
+    public void rebuildAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild();
+            }
+        });
+    }
+
+    /**
+     * Pass the forecasts of a station between {@code from} and {@code to} (open-ended when null)
+     * to the consumer, in date order.
+     *
+     * @return false if the store cannot answer, in which case nothing was consumed
+     */
+    public boolean read(Long stationId, LocalDate from, LocalDate to, Consumer<PrevisionView> consumer) {
+        Snapshot current = snapshot;
+        int slot = current.slotOf(stationId);
+        if (slot < 0 || !current.covers(from, to)) {
+            return false;
+        }
+        current.readSlot(slot, from, to, consumer);
+        return true;
+    }
+
+    /**
+     * Same as {@link #read(Long, LocalDate, LocalDate, Consumer)} for several stations
+     * (all known stations when {@code stationIds} is empty), ordered by station and date.
+     */
+    public boolean read(Collection<Long> stationIds, LocalDate from, LocalDate to, Consumer<PrevisionView> consumer) {
+        Snapshot current = snapshot;
+        if (!current.covers(from, to)) {
+            return false;
+        }
+        if (stationIds == null || stationIds.isEmpty()) {
+            for (int slot = 0; slot < current.stationIds.length; slot++) {
+                current.readSlot(slot, from, to, consumer);
+            }
+            return true;
+        }
+        long[] requested = stationIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        int[] slots = new int[requested.length];
+        for (int i = 0; i < requested.length; i++) {
+            slots[i] = current.slotOf(requested[i]);
+            if (slots[i] < 0) {
+                return false;
+            }
+        }
+        for (int slot : slots) {
+            current.readSlot(slot, from, to, consumer);
+        }
+        return true;
+    }
+
+    /**
+     * @return the highest forecast version of the given stations (all known stations when
+     *         {@code stationIds} is empty), or -1 if the store cannot answer
+     */
+    public long version(Collection<Long> stationIds) {
+        Snapshot current = snapshot;
+        if (current == Snapshot.EMPTY) {
+            return -1;
+        }
+        long version = 0;
+        if (stationIds == null || stationIds.isEmpty()) {
+            for (long slotVersion : current.versions) {
+                version = Math.max(version, slotVersion);
+            }
+            return version;
+        }
+        for (Long stationId : stationIds) {
+            int slot = current.slotOf(stationId);
+            if (slot < 0) {
+                return -1;
+            }
+            version = Math.max(version, current.versions[slot]);
+        }
+        return version;
+    }
+
+    private Snapshot load(LocalDate origin) {
+        // Versions are read before the forecasts, so they never claim more than the columns hold
+        List<StationMeteo> stations = stationRepo.findAll().stream()
+            .sorted(Comparator.comparing(StationMeteo::getId))
+            .toList();
+        long[] stationIds = new long[stations.size()];
+        long[] versions = new long[stations.size()];
+        for (int slot = 0; slot < stationIds.length; slot++) {
+            StationMeteo station = stations.get(slot);
+            stationIds[slot] = station.getId();
+            versions[slot] = station.getForecastVersion() != null ? station.getForecastVersion() : 0L;
+        }
+        LocalDate horizon = origin.plusDays(maxDays - 1L);
+
+        // The window ends on the furthest stored day, bounded by max-days
+        LocalDate last = previsionRepo.findLastDate();
+        boolean truncated = last != null && last.isAfter(horizon);
+        LocalDate end = last == null || last.isBefore(origin) ? origin : truncated ? horizon : last;
+        int days = (int) ChronoUnit.DAYS.between(origin, end) + 1;
+
+        Snapshot built = new Snapshot(origin, days, stationIds, versions, truncated);
+        try (Stream<PrevisionView> rows = previsionRepo.streamPrevisions(origin, end)) {
+            rows.forEach(built::put);
+        }
+        return built;
+    }
+
+    /**
+     * Immutable once published. Cell {@code slot * days + offset} holds the forecast of the
+     * station at {@code stationIds[slot]} on {@code origin + offset}; an id of 0 marks an empty cell
+     * and NaN a null value. {@code versions[slot]} is the forecast version of the station.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(LocalDate.MIN, 0, new long[0], new long[0], false);
+
+        final LocalDate origin;
+        final int days;
+        final long[] stationIds;
+        final long[] versions;
+        final boolean truncated;
+        final long[] ids;
+        final double[] temperatureMax;
+        final double[] temperatureMin;
+        final double[] pluiePrevue;
+        final double[] vent;
+        int rows;
+
+        Snapshot(LocalDate origin, int days, long[] stationIds, long[] versions, boolean truncated) {
+            this.origin = origin;
+            this.days = days;
+            this.stationIds = stationIds;
+            this.versions = versions;
+            this.truncated = truncated;
+            int cells = stationIds.length * days;
+            this.ids = new long[cells];
+            this.temperatureMax = new double[cells];
+            this.temperatureMin = new double[cells];
+            this.pluiePrevue = new double[cells];
+            this.vent = new double[cells];
+        }
+
+        int slotOf(Long stationId) {
+            return stationId == null ? -1 : Arrays.binarySearch(stationIds, stationId);
+        }
+
+        /**
+         * The store holds every forecast from its origin on, up to its last day when truncated.
+         */
+        boolean covers(LocalDate from, LocalDate to) {
+            if (this == EMPTY || from == null || from.isBefore(origin)) {
+                return false;
+            }
+            return !truncated || (to != null && !to.isAfter(origin.plusDays(days - 1L)));
+        }
+
+        void put(PrevisionView row) {
+            int slot = slotOf(row.stationId());
+            if (slot < 0) {
+                // Station created during the rebuild, served from the database until the next one
+                return;
+            }
+            int cell = slot * days + (int) ChronoUnit.DAYS.between(origin, row.date());
+            if (ids[cell] == 0) {
+                rows++;
+            }
+            ids[cell] = row.id();
+            temperatureMax[cell] = unbox(row.temperatureMax());
+            temperatureMin[cell] = unbox(row.temperatureMin());
+            pluiePrevue[cell] = unbox(row.pluiePrevue());
+            vent[cell] = unbox(row.vent());
+        }
+
+        void readSlot(int slot, LocalDate from, LocalDate to, Consumer<PrevisionView> consumer) {
+            int first = (int) ChronoUnit.DAYS.between(origin, from);
+            int last = to == null ? days - 1 : (int) Math.min(days - 1, ChronoUnit.DAYS.between(origin, to));
+            Long stationId = stationIds[slot];
+            for (int offset = first; offset <= last; offset++) {
+                int cell = slot * days + offset;
+                if (ids[cell] != 0) {
+                    consumer.accept(new PrevisionView(ids[cell], stationId, origin.plusDays(offset),
+                        box(temperatureMax[cell]), box(temperatureMin[cell]), box(pluiePrevue[cell]), box(vent[cell])));
+                }
+            }
+        }
+
+        private static double unbox(Double value) {
+            return value == null ? Double.NaN : value;
+        }
+
+        private static Double box(double value) {
+            return Double.isNaN(value) ? null : value;
+        }
+    }
+}
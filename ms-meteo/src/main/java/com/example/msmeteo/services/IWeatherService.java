@@ -1,19 +1,40 @@
 package com.example.msmeteo.services;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.example.msmeteo.dto.PrevisionRequest;
+import com.example.msmeteo.dto.PrevisionView;
 import com.example.msmeteo.entities.Prevision;
 import com.example.msmeteo.entities.StationMeteo;
 
 public interface IWeatherService {
     
-    List<Prevision> findUpcomingByStation(Long stationId);
+    List<PrevisionView> findUpcomingByStation(Long stationId);
+    
+    void exportPrevisions(Collection<Long> stationIds, LocalDate from, LocalDate to, Consumer<PrevisionView> consumer);
+    
+    void exportChangedPrevisions(Collection<Long> stationIds, long since, LocalDate from, LocalDate to,
+                                 Consumer<PrevisionView> consumer);
+    
+    /**
+     * @return true if forecasts of the given stations (all of them when empty) were deleted after
+     *         version {@code since}, which {@link #exportChangedPrevisions} cannot report
+     */
+    boolean hasDeletionsSince(Collection<Long> stationIds, long since);
+    
+    long getForecastVersion(Collection<Long> stationIds);
     
     Prevision createPrevision(PrevisionRequest request);
     
     Prevision savePrevision(Prevision prevision);
     
+    List<Prevision> saveStationPrevisions(StationMeteo station, List<Prevision> previsions);
+    
+    void deleteStationPrevisions(StationMeteo station, Collection<Prevision> previsions);
+    
     List<StationMeteo> getAllStations();
     
     StationMeteo createStation(StationMeteo station);
@@ -0,0 +1,285 @@
+package com.example.msmeteo.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.msmeteo.services.OpenMeteoClient.DailyForecast;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Streaming parser for Open-Meteo hourly responses.
+ * Hourly values are read token by token and aggregated into primitive per-day accumulators:
+ * no boxed values, no per-hour strings and a single {@link LocalDate} per day.
+ * Accepts a single location object or the array returned for multi-location requests.
+ */
+public class OpenMeteoForecastParser {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenMeteoForecastParser.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final int TEMPERATURE = 0;
+    private static final int PRECIPITATION = 1;
+    private static final int WIND = 2;
+
+    /**
+     * @return daily forecasts of each location, in response order
+     */
+    public List<List<DailyForecast>> parse(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    public List<List<DailyForecast>> parse(byte[] body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    private List<List<DailyForecast>> parse(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        List<List<DailyForecast>> locations = new ArrayList<>();
+        if (token == JsonToken.START_ARRAY) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                locations.add(parseLocation(parser));
+            }
+        } else if (token == JsonToken.START_OBJECT) {
+            locations.add(parseLocation(parser));
+        }
+        return locations;
+    }
+
+    /**
+     * Parses one location object; the parser is positioned on its START_OBJECT.
+     */
+    private List<DailyForecast> parseLocation(JsonParser parser) throws IOException {
+        List<DailyForecast> result = List.of();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("hourly".equals(field) && value == JsonToken.START_OBJECT) {
+                result = parseHourly(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private List<DailyForecast> parseHourly(JsonParser parser) throws IOException {
+        HourlyAggregation aggregation = new HourlyAggregation();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "time" -> aggregation.readTimes(parser);
+                case "temperature_2m" -> aggregation.readValues(parser, TEMPERATURE);
+                case "precipitation" -> aggregation.readValues(parser, PRECIPITATION);
+                case "wind_speed_10m" -> aggregation.readValues(parser, WIND);
+                default -> parser.skipChildren();
+            }
+        }
+        return aggregation.toDailyForecasts();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+
+    /**
+     * Per-day accumulators of one location. Values read before the time array are buffered
+     * in primitive arrays and folded in once the day of each hour is known.
+     */
+    private static final class HourlyAggregation {
+
+        private int[] hourDay;
+        private int hours = -1;
+        private final int[] lengths = {-1, -1, -1};
+        private final double[][] pending = new double[3][];
+        private boolean[] hourHasValue = new boolean[0];
+
+        private LocalDate[] days = new LocalDate[16];
+        private int dayCount;
+        private double[] maxTemp = new double[16];
+        private double[] minTemp = new double[16];
+        private double[] totalRain = new double[16];
+        private double[] windSum = new double[16];
+
+        private final char[] currentDay = new char[10];
+        private int currentDayIndex = -1;
+
+        void readTimes(JsonParser parser) throws IOException {
+            int[] result = new int[192];
+            int count = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = token == JsonToken.VALUE_STRING ? dayOf(parser) : -1;
+            }
+            hourDay = result;
+            hours = count;
+            if (hourHasValue.length < count) {
+                hourHasValue = Arrays.copyOf(hourHasValue, count);
+            }
+            for (int kind = 0; kind < pending.length; kind++) {
+                if (pending[kind] != null) {
+                    double[] values = pending[kind];
+                    for (int i = 0; i < Math.min(lengths[kind], count); i++) {
+                        if (!Double.isNaN(values[i])) {
+                            accumulate(kind, i, values[i]);
+                        }
+                    }
+                    pending[kind] = null;
+                }
+            }
+        }
+
+        void readValues(JsonParser parser, int kind) throws IOException {
+            double[] buffer = hourDay == null ? new double[192] : null;
+            int index = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                boolean numeric = token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT;
+                if (token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                }
+                if (buffer != null) {
+                    if (index == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, index * 2);
+                    }
+                    buffer[index] = numeric ? parser.getDoubleValue() : Double.NaN;
+                } else if (numeric && index < hours) {
+                    accumulate(kind, index, parser.getDoubleValue());
+                }
+                index++;
+            }
+            lengths[kind] = index;
+            pending[kind] = buffer;
+        }
+
+        /**
+         * Resolves the day index of the current time token from its first 10 characters (yyyy-MM-dd).
+         */
+        private int dayOf(JsonParser parser) throws IOException {
+            char[] text = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            if (parser.getTextLength() < 10) {
+                log.warn("Cannot parse Open-Meteo time value: {}", parser.getText());
+                return -1;
+            }
+            if (currentDayIndex >= 0 && Arrays.equals(currentDay, 0, 10, text, offset, offset + 10)) {
+                return currentDayIndex;
+            }
+
+            LocalDate date;
+            try {
+                date = LocalDate.of(digits(text, offset, 4), digits(text, offset + 5, 2), digits(text, offset + 8, 2));
+            } catch (DateTimeException | NumberFormatException ex) {
+                log.warn("Cannot parse Open-Meteo time value: {}", parser.getText());
+                return -1;
+            }
+            System.arraycopy(text, offset, currentDay, 0, 10);
+            currentDayIndex = indexOf(date);
+            return currentDayIndex;
+        }
+
+        private int indexOf(LocalDate date) {
+            for (int i = dayCount - 1; i >= 0; i--) {
+                if (days[i].equals(date)) {
+                    return i;
+                }
+            }
+            if (dayCount == days.length) {
+                int capacity = dayCount * 2;
+                days = Arrays.copyOf(days, capacity);
+                maxTemp = Arrays.copyOf(maxTemp, capacity);
+                minTemp = Arrays.copyOf(minTemp, capacity);
+                totalRain = Arrays.copyOf(totalRain, capacity);
+                windSum = Arrays.copyOf(windSum, capacity);
+            }
+            days[dayCount] = date;
+            maxTemp[dayCount] = Double.NEGATIVE_INFINITY;
+            minTemp[dayCount] = Double.POSITIVE_INFINITY;
+            return dayCount++;
+        }
+
+        private static int digits(char[] text, int offset, int length) {
+            int value = 0;
+            for (int i = offset; i < offset + length; i++) {
+                int digit = text[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException();
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private void accumulate(int kind, int hour, double value) {
+            int day = hourDay[hour];
+            if (day < 0) {
+                return;
+            }
+            hourHasValue[hour] = true;
+            switch (kind) {
+                case TEMPERATURE -> {
+                    maxTemp[day] = Math.max(maxTemp[day], value);
+                    minTemp[day] = Math.min(minTemp[day], value);
+                }
+                case PRECIPITATION -> totalRain[day] += value;
+                default -> windSum[day] += value;
+            }
+        }
+
+        List<DailyForecast> toDailyForecasts() {
+            if (hours < 0) {
+                return List.of();
+            }
+            if (lengths[TEMPERATURE] != hours || lengths[PRECIPITATION] != hours || lengths[WIND] != hours) {
+                log.warn("Open-Meteo response size mismatch: time={}, temp={}, rain={}, wind={}",
+                    hours, lengths[TEMPERATURE], lengths[PRECIPITATION], lengths[WIND]);
+                return List.of();
+            }
+
+            int[] counts = new int[dayCount];
+            for (int i = 0; i < hours; i++) {
+                if (hourHasValue[i]) {
+                    counts[hourDay[i]]++;
+                }
+            }
+
+            List<DailyForecast> result = new ArrayList<>(dayCount);
+            for (int day = 0; day < dayCount; day++) {
+                if (counts[day] > 0) {
+                    double max = maxTemp[day] == Double.NEGATIVE_INFINITY ? 0d : maxTemp[day];
+                    double min = minTemp[day] == Double.POSITIVE_INFINITY ? 0d : minTemp[day];
+                    result.add(new DailyForecast(
+                        days[day],
+                        round(max),
+                        round(min),
+                        round(totalRain[day]),
+                        round(windSum[day] / counts[day])
+                    ));
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.msmeteo.services;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the computation and the
+ * callers arriving while it is in flight wait for its result (or exception) instead of running
+ * their own. Nothing is kept once the computation completes, so the shared result must not be
+ * modified by the callers.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String meterName, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder(meterName)
+            .description("Calls running their own computation or sharing one already in flight")
+            .tag("result", "executed")
+            .register(meterRegistry);
+        this.coalesced = Counter.builder(meterName)
+            .description("Calls running their own computation or sharing one already in flight")
+            .tag("result", "coalesced")
+            .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        executed.increment();
+        try {
+            V value = computation.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+}
@@ -1,40 +1,138 @@
 package com.example.msmeteo.services;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.msmeteo.dto.PrevisionRequest;
+import com.example.msmeteo.dto.PrevisionView;
 import com.example.msmeteo.entities.Prevision;
 import com.example.msmeteo.entities.StationMeteo;
 import com.example.msmeteo.messaging.WeatherEventPublisher;
 import com.example.msmeteo.repositories.PrevisionRepository;
 import com.example.msmeteo.repositories.StationMeteoRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 public class WeatherServiceImpl implements IWeatherService {
 
     private final StationMeteoRepository stationRepo;
     private final PrevisionRepository previsionRepo;
     private final WeatherEventPublisher eventPublisher;
+    private final ForecastStore forecastStore;
+    private final TransactionTemplate readTransaction;
+    private final AtomicLong versionClock = new AtomicLong();
+    private final long deltaSafetyWindowMillis;
+    // Concurrent database reads of the same station share one lookup and query
+    private final SingleFlight<Long, List<PrevisionView>> upcomingReads;
 
     public WeatherServiceImpl(StationMeteoRepository stationRepo,
                               PrevisionRepository previsionRepo,
-                              @Autowired(required = false) WeatherEventPublisher eventPublisher) {
+                              @Autowired(required = false) WeatherEventPublisher eventPublisher,
+                              ForecastStore forecastStore,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.weather.delta.safety-window:300000}") long deltaSafetyWindowMillis) {
         this.stationRepo = stationRepo;
         this.previsionRepo = previsionRepo;
         this.eventPublisher = eventPublisher;
+        this.forecastStore = forecastStore;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.upcomingReads = new SingleFlight<>("meteo.forecast.reads", meterRegistry);
+        this.deltaSafetyWindowMillis = Math.max(0, deltaSafetyWindowMillis);
+    }
+
+    /**
+     * Served from the {@link ForecastStore}, or from the database when the store cannot answer,
+     * in which case concurrent calls for the same station are coalesced.
+     */
+    @Override
+    public List<PrevisionView> findUpcomingByStation(Long stationId) {
+        LocalDate today = LocalDate.now();
+        List<PrevisionView> previsions = new ArrayList<>();
+        if (forecastStore.read(stationId, today, null, previsions::add)) {
+            return previsions;
+        }
+        return upcomingReads.execute(stationId, () -> {
+            if (!stationRepo.existsById(stationId)) {
+                throw new IllegalArgumentException("Station introuvable : " + stationId);
+            }
+            return List.copyOf(previsionRepo.findViewsByStation(stationId, today, null));
+        });
+    }
+
+    /**
+     * Streams the forecasts of several stations (all of them when {@code stationIds} is empty)
+     * from today unless {@code from} is given: from the {@link ForecastStore} when it covers
+     * the request, otherwise in a single query.
+     */
+    @Override
+    public void exportPrevisions(Collection<Long> stationIds, LocalDate from, LocalDate to, Consumer<PrevisionView> consumer) {
+        LocalDate startDate = from != null ? from : LocalDate.now();
+        if (forecastStore.read(stationIds, startDate, to, consumer)) {
+            return;
+        }
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<PrevisionView> rows = stationIds == null || stationIds.isEmpty()
+                    ? previsionRepo.streamPrevisions(startDate, to)
+                    : previsionRepo.streamPrevisionsForStations(stationIds, startDate, to)) {
+                rows.forEach(consumer);
+            }
+        });
     }
 
+    /**
+     * Streams the forecasts changed after version {@code since}, read from the database
+     * which alone keeps the version of each row. Deleted forecasts leave no row to report:
+     * callers check {@link #hasDeletionsSince} first and read everything when it is true.
+     *
+     * Versions are taken from the clock when a write starts, not when it commits, and stations are
+     * written in parallel: a forecast committed after a reader saw a newer version can carry an older
+     * one. The versions of the last {@code app.weather.delta.safety-window} before {@code since} are
+     * therefore scanned again, so that window must exceed the longest forecast write transaction
+     * (and the clock skew between instances); rows already received may be sent again.
+     */
     @Override
     @Transactional(readOnly = true)
-    public List<Prevision> findUpcomingByStation(Long stationId) {
-        StationMeteo station = stationRepo.findById(stationId)
-            .orElseThrow(() -> new IllegalArgumentException("Station introuvable : " + stationId));
-        return previsionRepo.findByStationAndDateGreaterThanEqual(station, LocalDate.now());
+    public void exportChangedPrevisions(Collection<Long> stationIds, long since, LocalDate from, LocalDate to,
+                                        Consumer<PrevisionView> consumer) {
+        LocalDate startDate = from != null ? from : LocalDate.now();
+        long rescanFrom = rescanFrom(since);
+        try (Stream<PrevisionView> rows = stationIds == null || stationIds.isEmpty()
+                ? previsionRepo.streamChangedPrevisions(rescanFrom, startDate, to)
+                : previsionRepo.streamChangedPrevisionsForStations(stationIds, rescanFrom, startDate, to)) {
+            rows.forEach(consumer);
+        }
+    }
+
+    /**
+     * Deletion versions come from the same clock as the forecast versions and are checked over
+     * the same safety window.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasDeletionsSince(Collection<Long> stationIds, long since) {
+        long rescanFrom = rescanFrom(since);
+        return stationIds == null || stationIds.isEmpty()
+            ? stationRepo.existsByDeletionVersionGreaterThan(rescanFrom)
+            : stationRepo.existsByIdInAndDeletionVersionGreaterThan(stationIds, rescanFrom);
+    }
+
+    private long rescanFrom(long since) {
+        return Math.max(0L, since - deltaSafetyWindowMillis);
     }
 
     @Override
@@ -52,19 +150,66 @@ public class WeatherServiceImpl implements IWeatherService {
             .vent(request.vent())
             .build();
 
-        return savePrevision(prevision);
+        Prevision saved = savePrevision(prevision);
+        forecastStore.rebuildAfterCommit();
+        return saved;
     }
 
     @Override
     @Transactional
     public Prevision savePrevision(Prevision prevision) {
+        long version = nextVersion();
+        prevision.setChangeVersion(version);
         Prevision saved = previsionRepo.save(prevision);
+        stationRepo.raiseForecastVersion(saved.getStation().getId(), version);
         if (eventPublisher != null) {
             eventPublisher.publishWeatherChange(saved);
         }
         return saved;
     }
 
+    @Override
+    @Transactional
+    public List<Prevision> saveStationPrevisions(StationMeteo station, List<Prevision> previsions) {
+        long version = nextVersion();
+        previsions.forEach(prevision -> prevision.setChangeVersion(version));
+        List<Prevision> saved = previsionRepo.saveAll(previsions);
+        stationRepo.raiseForecastVersion(station.getId(), version);
+        if (eventPublisher != null) {
+            eventPublisher.publishWeatherChanges(station.getId(), saved);
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public void deleteStationPrevisions(StationMeteo station, Collection<Prevision> previsions) {
+        previsionRepo.deleteAllInBatch(previsions);
+        long version = nextVersion();
+        stationRepo.raiseForecastVersion(station.getId(), version);
+        stationRepo.raiseDeletionVersion(station.getId(), version);
+    }
+
+    @Override
+    public long getForecastVersion(Collection<Long> stationIds) {
+        long version = forecastStore.version(stationIds);
+        if (version >= 0) {
+            return version;
+        }
+        Long stored = stationIds == null || stationIds.isEmpty()
+            ? stationRepo.findMaxForecastVersion()
+            : stationRepo.findMaxForecastVersion(stationIds);
+        return stored != null ? stored : 0L;
+    }
+
+    /**
+     * Versions follow the clock so that they stay ordered across restarts,
+     * and are strictly increasing within the instance.
+     */
+    private long nextVersion() {
+        return versionClock.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<StationMeteo> getAllStations() {
@@ -1,28 +1,47 @@
 package com.example.msmeteo.web;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.msmeteo.dto.PrevisionRequest;
+import com.example.msmeteo.dto.PrevisionView;
 import com.example.msmeteo.entities.Prevision;
 import com.example.msmeteo.entities.StationMeteo;
 import com.example.msmeteo.services.IWeatherService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 
 @RestController
 @RequestMapping("/api/meteo")
 public class MeteoController {
 
+    static final String VERSION_HEADER = "X-Forecast-Version";
+    static final String DELTA_HEADER = "X-Forecast-Delta";
+
     private final IWeatherService weatherService;
+    private final ObjectWriter rowWriter;
 
-    public MeteoController(IWeatherService weatherService) {
+    public MeteoController(IWeatherService weatherService, ObjectMapper objectMapper) {
         this.weatherService = weatherService;
+        this.rowWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @GetMapping("/stations")
@@ -40,23 +59,84 @@ public class MeteoController {
         return ResponseEntity.ok(weatherService.getStation(stationId));
     }
 
+    /**
+     * Forecasts of all stations, or of the given ones, from today (or {@code from}) to {@code to},
+     * read in a single query and streamed as a JSON array.
+     * With {@code since}, only the forecasts changed after that version are returned, along with
+     * some already returned ones re-sent for safety; the current version is sent in the
+     * {@value #VERSION_HEADER} header. Deletions cannot be sent as changes: when forecasts of the
+     * requested stations were deleted after {@code since}, all of them are returned instead.
+     * {@value #DELTA_HEADER} tells which: {@code true} for changes to merge, {@code false} for a
+     * complete response replacing what the client holds.
+     * Answers {@code 304 Not Modified} when the {@code If-None-Match} ETag is still current.
+     */
     @GetMapping("/previsions")
-    public ResponseEntity<List<Prevision>> getAllPrevisions() {
-        List<StationMeteo> stations = weatherService.getAllStations();
-        List<Prevision> allPrevisions = new java.util.ArrayList<>();
-        for (StationMeteo station : stations) {
-            allPrevisions.addAll(weatherService.findUpcomingByStation(station.getId()));
+    public ResponseEntity<StreamingResponseBody> getAllPrevisions(
+            @RequestParam(required = false) List<Long> stationIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long since,
+            WebRequest request) {
+        LocalDate startDate = from != null ? from : LocalDate.now();
+        long version = weatherService.getForecastVersion(stationIds);
+        String etag = etag(version, startDate);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        boolean delta = since != null && !weatherService.hasDeletionsSince(stationIds, since);
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter rows = rowWriter.writeValuesAsArray(out)) {
+                if (delta) {
+                    weatherService.exportChangedPrevisions(stationIds, since, startDate, to, row -> write(rows, row));
+                } else {
+                    weatherService.exportPrevisions(stationIds, startDate, to, row -> write(rows, row));
+                }
+            }
+        };
+        ResponseEntity.BodyBuilder response = conditional(etag, version);
+        if (since != null) {
+            response.header(DELTA_HEADER, Boolean.toString(delta));
         }
-        return ResponseEntity.ok(allPrevisions);
+        return response.contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @GetMapping("/previsions/{stationId}")
-    public ResponseEntity<List<Prevision>> getPrevisions(@PathVariable Long stationId) {
-        return ResponseEntity.ok(weatherService.findUpcomingByStation(stationId));
+    public ResponseEntity<List<PrevisionView>> getPrevisions(@PathVariable Long stationId, WebRequest request) {
+        long version = weatherService.getForecastVersion(List.of(stationId));
+        String etag = etag(version, LocalDate.now());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return conditional(etag, version).body(weatherService.findUpcomingByStation(stationId));
     }
 
     @PostMapping("/previsions")
     public ResponseEntity<Prevision> createPrevision(@RequestBody PrevisionRequest request) {
         return ResponseEntity.ok(weatherService.createPrevision(request));
     }
-}
\ No newline at end of file
+
+    /**
+     * The version alone is not enough: forecasts read from today on also change at midnight.
+     */
+    private static String etag(long version, LocalDate startDate) {
+        return "\"" + version + "-" + startDate + "\"";
+    }
+
+    /**
+     * Clients may keep the response but must revalidate it before reuse.
+     */
+    private static ResponseEntity.BodyBuilder conditional(String etag, long version) {
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .header(VERSION_HEADER, Long.toString(version));
+    }
+
+    private static void write(SequenceWriter rows, PrevisionView row) {
+        try {
+            rows.write(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.msmeteo.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.msmeteo.MsMeteoApplication;
+import com.example.msmeteo.dto.PrevisionView;
+import com.example.msmeteo.entities.Prevision;
+import com.example.msmeteo.entities.StationMeteo;
+import com.example.msmeteo.repositories.PrevisionRepository;
+import com.example.msmeteo.repositories.StationMeteoRepository;
+
+/**
+ * Forecast reads from the {@link ForecastStore} columns against the JPA path they replace
+ * (station lookup plus entity query for one station, projection stream for all stations),
+ * on an in-memory H2 database.
+ *
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.msmeteo.services.ForecastStoreBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForecastStoreBenchmark {
+
+    private static final int FORECAST_DAYS = 16;
+
+    @Param({"10", "200"})
+    int stations;
+
+    private ConfigurableApplicationContext context;
+    private ForecastStore store;
+    private StationMeteoRepository stationRepo;
+    private PrevisionRepository previsionRepo;
+    private TransactionTemplate readTransaction;
+    private Long stationId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MsMeteoApplication.class).run(
+            "--spring.main.web-application-type=none",
+            "--spring.cloud.config.fail-fast=false",
+            "--eureka.client.enabled=false",
+            "--spring.scheduling.enabled=false",
+            "--spring.datasource.url=jdbc:h2:mem:forecast-store;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.com.example=INFO");
+        store = context.getBean(ForecastStore.class);
+        stationRepo = context.getBean(StationMeteoRepository.class);
+        previsionRepo = context.getBean(PrevisionRepository.class);
+        readTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readTransaction.setReadOnly(true);
+
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        List<Prevision> previsions = new ArrayList<>();
+        for (int s = 0; s < stations; s++) {
+            StationMeteo station = stationRepo.save(StationMeteo.builder()
+                .nom("Station " + s).latitude(36.8 + s * 0.01).longitude(10.1).fournisseur("open-meteo").build());
+            for (int d = 0; d < FORECAST_DAYS; d++) {
+                previsions.add(Prevision.builder()
+                    .station(station)
+                    .date(today.plusDays(d))
+                    .temperatureMax(20 + random.nextDouble() * 15)
+                    .temperatureMin(5 + random.nextDouble() * 10)
+                    .pluiePrevue(random.nextDouble() * 10)
+                    .vent(random.nextDouble() * 40)
+                    .build());
+            }
+            stationId = station.getId();
+        }
+        previsionRepo.saveAll(previsions);
+        store.rebuild();
+
+        if (!storeStation().equals(jpaStation())) {
+            throw new IllegalStateException("Forecast store and JPA disagree");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PrevisionView> storeStation() {
+        List<PrevisionView> result = new ArrayList<>();
+        store.read(stationId, LocalDate.now(), null, result::add);
+        return result;
+    }
+
+    @Benchmark
+    public List<PrevisionView> jpaStation() {
+        return readTransaction.execute(status -> {
+            StationMeteo station = stationRepo.findById(stationId).orElseThrow();
+            List<PrevisionView> result = new ArrayList<>();
+            for (Prevision p : previsionRepo.findByStationAndDateGreaterThanEqual(station, LocalDate.now())) {
+                result.add(new PrevisionView(p.getId(), station.getId(), p.getDate(), p.getTemperatureMax(),
+                    p.getTemperatureMin(), p.getPluiePrevue(), p.getVent()));
+            }
+            return result;
+        });
+    }
+
+    @Benchmark
+    public List<PrevisionView> storeAll() {
+        List<PrevisionView> result = new ArrayList<>();
+        store.read(List.of(), LocalDate.now(), null, result::add);
+        return result;
+    }
+
+    @Benchmark
+    public List<PrevisionView> jpaAll() {
+        return readTransaction.execute(status -> {
+            try (Stream<PrevisionView> rows = previsionRepo.streamPrevisions(LocalDate.now(), null)) {
+                return rows.toList();
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ForecastStoreBenchmark.class.getSimpleName()).build()).run();
+    }
+}
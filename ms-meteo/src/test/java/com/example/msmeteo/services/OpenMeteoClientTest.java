@@ -0,0 +1,119 @@
+package com.example.msmeteo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestClientException;
+
+import com.example.msmeteo.entities.StationMeteo;
+import com.example.msmeteo.services.OpenMeteoClient.DailyForecast;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Exercises the multi-location Open-Meteo requests against a local stub server.
+ */
+class OpenMeteoClientTest {
+
+    private static final String LOCATION = """
+        {"latitude":%s,"hourly":{"time":["2026-06-01T00:00","2026-06-01T12:00","2026-06-02T00:00"],
+         "temperature_2m":[%s,25.0,18.0],"precipitation":[1.0,2.0,0.5],"wind_speed_10m":[10.0,20.0,5.0]}}
+        """;
+
+    private HttpServer server;
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/forecast", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            queries.add(query);
+            String[] latitudes = param(query, "latitude").split(",");
+            StringBuilder body = new StringBuilder();
+            if (latitudes.length == 1) {
+                body.append(LOCATION.formatted(latitudes[0], latitudes[0]));
+            } else {
+                body.append('[');
+                for (int i = 0; i < latitudes.length; i++) {
+                    body.append(i > 0 ? "," : "").append(LOCATION.formatted(latitudes[i], latitudes[i]));
+                }
+                body.append(']');
+            }
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void groupsStationsIntoMultiLocationRequestsAndMapsResultsBackToStations() {
+        OpenMeteoClient client = client(2);
+        List<StationMeteo> stations = List.of(station(1L, 30.0), station(2L, 31.0), station(3L, 32.0),
+            StationMeteo.builder().id(4L).build());
+
+        Map<Long, List<DailyForecast>> forecasts = client.fetchDailyForecasts(stations);
+
+        assertThat(queries).hasSize(2);
+        assertThat(param(queries.get(0), "latitude")).isEqualTo("30.0,31.0");
+        assertThat(param(queries.get(1), "latitude")).isEqualTo("32.0");
+        assertThat(forecasts).containsOnlyKeys(1L, 2L, 3L);
+        for (long id = 1; id <= 3; id++) {
+            List<DailyForecast> daily = forecasts.get(id);
+            assertThat(daily).hasSize(2);
+            assertThat(daily.get(0).date()).isEqualTo(LocalDate.of(2026, 6, 1));
+            // The first hourly temperature is the station latitude, hence the daily maximum
+            assertThat(daily.get(0).temperatureMax()).isEqualTo(29.0 + id);
+            assertThat(daily.get(0).pluiePrevue()).isEqualTo(3.0);
+            assertThat(daily.get(0).vent()).isEqualTo(15.0);
+        }
+    }
+
+    @Test
+    void failsWhenTheProviderIsUnreachable() {
+        server.stop(0);
+
+        assertThatThrownBy(() -> client(10).fetchDailyForecasts(List.of(station(1L, 30.0), station(2L, 31.0))))
+            .isInstanceOf(RestClientException.class);
+    }
+
+    private OpenMeteoClient client(int batchSize) {
+        String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/v1/forecast";
+        return new OpenMeteoClient(new RestTemplateBuilder(), baseUrl, 2,
+            "temperature_2m,precipitation,wind_speed_10m", "auto", batchSize);
+    }
+
+    private static StationMeteo station(Long id, double latitude) {
+        return StationMeteo.builder().id(id).nom("Station " + id).latitude(latitude).longitude(10.0).build();
+    }
+
+    private static String param(String query, String name) {
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return "";
+    }
+}
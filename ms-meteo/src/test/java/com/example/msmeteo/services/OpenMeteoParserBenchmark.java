@@ -0,0 +1,200 @@
+package com.example.msmeteo.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.msmeteo.services.OpenMeteoClient.DailyForecast;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the streaming Open-Meteo parser with the former data-binding parser
+ * (hourly lists of boxed values aggregated through a LinkedHashMap).
+ *
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.msmeteo.services.OpenMeteoParserBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenMeteoParserBenchmark {
+
+    @Param({"7", "16"})
+    int forecastDays;
+
+    @Param({"1", "100"})
+    int locations;
+
+    private byte[] payload;
+    private final OpenMeteoForecastParser streamingParser = new OpenMeteoForecastParser();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = buildPayload(forecastDays, locations).getBytes(StandardCharsets.UTF_8);
+        if (!streaming().equals(dataBinding())) {
+            throw new IllegalStateException("Streaming and data-binding parsers disagree");
+        }
+    }
+
+    @Benchmark
+    public List<List<DailyForecast>> streaming() throws IOException {
+        return streamingParser.parse(payload);
+    }
+
+    @Benchmark
+    public List<List<DailyForecast>> dataBinding() throws IOException {
+        List<List<DailyForecast>> result = new ArrayList<>();
+        if (locations == 1) {
+            result.add(toDailyForecasts(objectMapper.readValue(payload, OpenMeteoResponse.class)));
+        } else {
+            for (OpenMeteoResponse response : objectMapper.readValue(payload, OpenMeteoResponse[].class)) {
+                result.add(toDailyForecasts(response));
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OpenMeteoParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    static String buildPayload(int days, int locations) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDate.of(2026, 6, 1).atStartOfDay();
+        StringBuilder json = new StringBuilder();
+        if (locations > 1) {
+            json.append('[');
+        }
+        for (int l = 0; l < locations; l++) {
+            if (l > 0) {
+                json.append(',');
+            }
+            StringBuilder time = new StringBuilder();
+            StringBuilder temp = new StringBuilder();
+            StringBuilder rain = new StringBuilder();
+            StringBuilder wind = new StringBuilder();
+            for (int h = 0; h < days * 24; h++) {
+                String separator = h > 0 ? "," : "";
+                time.append(separator).append('"').append(start.plusHours(h)).append('"');
+                temp.append(separator).append(Math.round((10 + random.nextDouble() * 25) * 10) / 10.0);
+                rain.append(separator).append(Math.round(random.nextDouble() * 3 * 10) / 10.0);
+                wind.append(separator).append(Math.round(random.nextDouble() * 40 * 10) / 10.0);
+            }
+            json.append("{\"latitude\":").append(36.8 + l * 0.01).append(",\"longitude\":10.1,")
+                .append("\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\"},")
+                .append("\"hourly\":{\"time\":[").append(time)
+                .append("],\"temperature_2m\":[").append(temp)
+                .append("],\"precipitation\":[").append(rain)
+                .append("],\"wind_speed_10m\":[").append(wind).append("]}}");
+        }
+        if (locations > 1) {
+            json.append(']');
+        }
+        return json.toString();
+    }
+
+    // ===== Former data-binding implementation, kept here as the baseline =====
+
+    private static List<DailyForecast> toDailyForecasts(OpenMeteoResponse response) {
+        if (response == null || response.hourly() == null || response.hourly().time() == null) {
+            return List.of();
+        }
+
+        List<String> times = response.hourly().time();
+        List<Double> temps = response.hourly().temperature2m();
+        List<Double> rains = response.hourly().precipitation();
+        List<Double> winds = response.hourly().windSpeed10m();
+
+        int size = times.size();
+        if (temps == null || rains == null || winds == null || temps.size() != size || rains.size() != size || winds.size() != size) {
+            return List.of();
+        }
+
+        Map<LocalDate, DailyAccumulator> accumulator = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            LocalDate date = LocalDate.parse(times.get(i).substring(0, 10));
+            DailyAccumulator acc = accumulator.computeIfAbsent(date, d -> new DailyAccumulator());
+            acc.register(temps.get(i), rains.get(i), winds.get(i));
+        }
+
+        List<DailyForecast> result = new ArrayList<>();
+        accumulator.forEach((date, acc) -> {
+            if (acc.count > 0) {
+                double maxTemp = acc.maxTemp == Double.NEGATIVE_INFINITY ? 0d : acc.maxTemp;
+                double minTemp = acc.minTemp == Double.POSITIVE_INFINITY ? 0d : acc.minTemp;
+                result.add(new DailyForecast(date, round(maxTemp), round(minTemp), round(acc.totalRain),
+                    round(acc.windSum / acc.count)));
+            }
+        });
+        return result;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+
+    private static class DailyAccumulator {
+        double maxTemp = Double.NEGATIVE_INFINITY;
+        double minTemp = Double.POSITIVE_INFINITY;
+        double totalRain = 0d;
+        double windSum = 0d;
+        int count = 0;
+
+        void register(Double temp, Double rain, Double wind) {
+            boolean hasValue = false;
+            if (temp != null) {
+                maxTemp = Math.max(maxTemp, temp);
+                minTemp = Math.min(minTemp, temp);
+                hasValue = true;
+            }
+            if (rain != null) {
+                totalRain += rain;
+                hasValue = true;
+            }
+            if (wind != null) {
+                windSum += wind;
+                hasValue = true;
+            }
+            if (hasValue) {
+                count++;
+            }
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record OpenMeteoResponse(Hourly hourly) { }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Hourly(List<String> time,
+                  @JsonProperty("temperature_2m") List<Double> temperature2m,
+                  @JsonProperty("precipitation") List<Double> precipitation,
+                  @JsonProperty("wind_speed_10m") List<Double> windSpeed10m) { }
+}
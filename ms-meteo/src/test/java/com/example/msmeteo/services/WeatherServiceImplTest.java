@@ -0,0 +1,148 @@
+package com.example.msmeteo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.msmeteo.dto.PrevisionView;
+import com.example.msmeteo.repositories.PrevisionRepository;
+import com.example.msmeteo.repositories.StationMeteoRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Bursts of concurrent reads of the same station forecasts served from the database:
+ * they must share one station lookup and one forecast query, and its failure.
+ */
+class WeatherServiceImplTest {
+
+    private static final int CALLERS = 64;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StationMeteoRepository stationRepo = mock(StationMeteoRepository.class);
+    private final PrevisionRepository previsionRepo = mock(PrevisionRepository.class);
+    // Mocked store answers nothing, every read falls back to the database
+    private final ForecastStore forecastStore = mock(ForecastStore.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean failing;
+    private ExecutorService callers;
+    private WeatherServiceImpl weatherService;
+
+    @BeforeEach
+    void setUp() {
+        callers = Executors.newFixedThreadPool(CALLERS);
+        when(stationRepo.existsById(anyLong())).thenReturn(true);
+        when(previsionRepo.findViewsByStation(anyLong(), any(LocalDate.class), isNull())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            if (failing) {
+                throw new QueryTimeoutException("forecast query timed out");
+            }
+            Long stationId = invocation.getArgument(0);
+            return List.of(new PrevisionView(stationId * 100, stationId, LocalDate.now(), 30.0, 18.0, 2.0, 10.0));
+        });
+        weatherService = new WeatherServiceImpl(stationRepo, previsionRepo, null, forecastStore,
+            mock(PlatformTransactionManager.class), meterRegistry, 300_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void burstOnOneStationRunsOneQuery() throws Exception {
+        List<Future<List<PrevisionView>>> results = burst(List.of(7L));
+
+        releaseWhenCoalesced(CALLERS - 1);
+        for (Future<List<PrevisionView>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).singleElement()
+                .extracting(PrevisionView::stationId).isEqualTo(7L);
+        }
+
+        verify(stationRepo, times(1)).existsById(7L);
+        verify(previsionRepo, times(1)).findViewsByStation(anyLong(), any(LocalDate.class), isNull());
+        assertThat(reads("coalesced")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void burstOnSeveralStationsRunsOneQueryPerStation() throws Exception {
+        List<Long> stations = List.of(1L, 2L, 3L, 4L);
+        List<Future<List<PrevisionView>>> results = burst(stations);
+
+        releaseWhenCoalesced(CALLERS - stations.size());
+        for (Future<List<PrevisionView>> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        for (Long stationId : stations) {
+            verify(previsionRepo, times(1)).findViewsByStation(stationId, LocalDate.now(), null);
+        }
+        assertThat(reads("executed")).isEqualTo(stations.size());
+    }
+
+    @Test
+    void failureIsSharedAndNextLookupRetries() throws Exception {
+        failing = true;
+        List<Future<List<PrevisionView>>> results = burst(List.of(7L));
+
+        releaseWhenCoalesced(CALLERS - 1);
+        for (Future<List<PrevisionView>> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(QueryTimeoutException.class);
+        }
+        verify(previsionRepo, times(1)).findViewsByStation(anyLong(), any(LocalDate.class), isNull());
+
+        failing = false;
+        assertThat(weatherService.findUpcomingByStation(7L)).hasSize(1);
+        verify(previsionRepo, times(2)).findViewsByStation(anyLong(), any(LocalDate.class), isNull());
+    }
+
+    private List<Future<List<PrevisionView>>> burst(List<Long> stations) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<PrevisionView>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            Long stationId = stations.get(i % stations.size());
+            results.add(callers.submit(() -> {
+                start.await();
+                return weatherService.findUpcomingByStation(stationId);
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    /**
+     * Hold the running queries until every other caller has joined one of them.
+     */
+    private void releaseWhenCoalesced(int expected) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> reads("coalesced") >= expected);
+        release.countDown();
+    }
+
+    private double reads(String result) {
+        return meterRegistry.get("meteo.forecast.reads").tag("result", result).counter().count();
+    }
+}